@@ -0,0 +1,513 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Pomiary wydajności najgorętszych ścieżek gry bez zewnętrznych bibliotek:
+//   javac -encoding UTF-8 -d out/bench src/*.java bench/*.java
+//   java -cp out/bench:src GameBenchmark [-csv] [fragment nazwy...]
+//   java -cp out/bench:src GameBenchmark -alloc
+// Każdy pomiar ma rundy rozgrzewkowe i rundy mierzone o stałej liczbie operacji. Gry i plansze
+// są losowane ze stałego ziarna, więc kolejne uruchomienia wykonują dokładnie tę samą pracę
+// i wyniki można porównywać między wersjami kodu. Tryb -alloc sprawdza, że krok gry i klatka
+// w stanie ustalonym nie przydzielają pamięci, i kończy się kodem 1, jeśli przydzielają.
+public class GameBenchmark {
+    private static final long SEED = 42;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURE_ROUNDS = 10;
+    private static final int TILE_SIZE = BoardPainter.TILE_SIZE;
+    private static final int ALLOC_WARMUP_TICKS = 50_000;
+    private static final int ALLOC_CHECK_TICKS = 5_000;
+    // Po rozgrzewce każde okno musi być bez przydziałów; kilka okien, żeby wyszły też przydziały
+    // na rzadkich ścieżkach (nowy owoc, zderzenie), a nie tylko te w każdym kroku
+    private static final int ALLOC_CHECK_WINDOWS = 5;
+    // Klatka kluczowa nagrania co tyle kroków, żeby pełny stan gry był zapisywany w każdym oknie wiele razy
+    private static final int ALLOC_KEYFRAME_INTERVAL = 16;
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter(); // null - JVM nie mierzy przydziałów
+
+    // Wynik operacji trafia tutaj, żeby JIT nie mógł usunąć mierzonego kodu
+    private static volatile int sink;
+
+    // Jeden mierzony przypadek: przygotowanie przed rundą (nie wlicza się do czasu) i jedna operacja
+    private abstract static class Case {
+        final String name;
+        final int operations;
+
+        Case(String name, int operations) {
+            this.name = name;
+            this.operations = operations;
+        }
+
+        void setup() {
+        }
+
+        abstract int run();
+    }
+
+    public static void main(String[] args) {
+        boolean csv = false;
+        List<String> filters = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("-csv")) {
+                csv = true;
+            } else if (arg.equals("-alloc")) {
+                System.exit(checkAllocations() ? 0 : 1);
+            } else {
+                filters.add(arg);
+            }
+        }
+
+        List<Case> cases = new ArrayList<>();
+        for (int length : new int[]{1, 64, 256, 512}) {
+            cases.add(singlePlayerStep(length));
+        }
+        cases.add(computerStep(GameEngine.BOARD_TILES_X, GameEngine.BOARD_TILES_Y, false));
+        cases.add(computerStep(GameEngine.BOARD_TILES_X, GameEngine.BOARD_TILES_Y, true));
+        cases.add(computerStep(1_000, 1_000, false));
+        cases.add(computerStep(GameEngine.MAX_BOARD_TILES, GameEngine.MAX_BOARD_TILES, false));
+        cases.add(arenaStep(200, 200, 100, 1));
+        cases.add(arenaStep(200, 200, 400, 1));
+        int cores = Runtime.getRuntime().availableProcessors();
+        if (cores > 1) {
+            cases.add(arenaStep(200, 200, 400, cores));
+        }
+        cases.add(pathFinder());
+        cases.add(distanceField());
+        cases.add(fruitPlacement());
+        cases.add(render(true));
+        cases.add(render(false));
+
+        System.out.println(csv ? "benchmark,ns_per_op,error,bytes_per_op"
+                : String.format(Locale.ROOT, "%-28s %12s %10s %10s", "Benchmark", "ns/op", "+-", "B/op"));
+        for (Case c : cases) {
+            if (matches(c.name, filters)) {
+                measure(c, csv);
+            }
+        }
+    }
+
+    private static boolean matches(String name, List<String> filters) {
+        if (filters.isEmpty()) return true;
+        for (String filter : filters) {
+            if (name.contains(filter)) return true;
+        }
+        return false;
+    }
+
+    // Rozgrzewka, rundy mierzone i wypisanie średniej z odchyleniem standardowym między rundami
+    private static void measure(Case c, boolean csv) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            c.setup();
+            runRound(c);
+        }
+        double[] nanos = new double[MEASURE_ROUNDS];
+        long allocated = 0;
+        for (int round = 0; round < MEASURE_ROUNDS; round++) {
+            c.setup();
+            long bytes = allocatedBytes();
+            nanos[round] = (double) runRound(c) / c.operations;
+            allocated += allocatedBytes() - bytes;
+        }
+
+        double mean = 0;
+        for (double n : nanos) mean += n;
+        mean /= nanos.length;
+        double variance = 0;
+        for (double n : nanos) variance += (n - mean) * (n - mean);
+        double deviation = Math.sqrt(variance / (nanos.length - 1));
+        double bytesPerOp = allocated < 0 ? Double.NaN : (double) allocated / ((long) MEASURE_ROUNDS * c.operations);
+
+        System.out.println(String.format(Locale.ROOT, csv ? "%s,%.1f,%.1f,%.2f" : "%-28s %12.1f %10.1f %10.2f",
+                c.name, mean, deviation, bytesPerOp));
+    }
+
+    private static long runRound(Case c) {
+        int result = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < c.operations; i++) {
+            result += c.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink = result;
+        return elapsed;
+    }
+
+    // Sprawdzenie braku przydziałów pamięci w kroku i klatce każdego trybu gry; false, gdy któryś
+    // tryb przydziela pamięć w którymkolwiek oknie pomiaru
+    private static boolean checkAllocations() {
+        if (allocatedBytes() < 0) {
+            System.out.println("alloc: skipped, this JVM does not measure per-thread allocations");
+            return true;
+        }
+        boolean ok = checkAllocations("alloc/single", new GameEngine(false, SEED), false, false);
+        ok &= checkAllocations("alloc/computer", new GameEngine(true, SEED), false, false);
+        ok &= checkAllocations("alloc/computer/replay", new GameEngine(true, SEED), true, false);
+        ok &= checkAllocations("alloc/computer/paint", new GameEngine(true, SEED), false, true);
+        ok &= checkAllocations("alloc/arena/64x64/20", GameEngine.arena(64, 64, 20, SEED), false, false);
+        return ok;
+    }
+
+    // Rozgrzewka o stałej długości (rosną tablice silnika i migawek, JIT kompiluje kod), potem okna po
+    // ALLOC_CHECK_TICKS kroków - pierwsze okno z przydziałami kończy sprawdzenie porażką. Krok kończący
+    // grę nie jest liczony - reset tworzy owoce i przeszkody. Rozgrzewka rysuje co drugą klatkę w całości,
+    // bo nowy owoc pojawia się w grze raz na kilkaset kroków, a bez tego jego rysowanie długo wykonywałby
+    // interpreter. Z nagrywaniem (record) nagranie zaczyna się od nowa co ALLOC_CHECK_TICKS kroków, także
+    // przed każdym oknem: bufory nagrania rosną razem z nim, a tak w rozgrzewce osiągają rozmiar nagrania
+    // jednego okna. Z paintComponent klatka idzie drogą domyślną (invalidate i paintComponent zamiast
+    // aktywnego rysowania) z włączonymi pomiarami i nakładką.
+    private static boolean checkAllocations(String name, GameEngine engine, boolean record, boolean paintComponent) {
+        GameLoop loop = new GameLoop(engine, record, paintComponent);
+        for (int i = 0; i < ALLOC_WARMUP_TICKS; i++) {
+            if (i % ALLOC_CHECK_TICKS == 0) {
+                loop.restartRecording();
+            }
+            if ((i & 1) == 0) {
+                loop.painter.markAll();
+            }
+            if (!loop.tick()) {
+                loop.restart();
+            }
+        }
+        for (int window = 1; window <= ALLOC_CHECK_WINDOWS; window++) {
+            loop.restartRecording();
+            long bytes = 0;
+            for (int i = 0; i < ALLOC_CHECK_TICKS; i++) {
+                long before = allocatedBytes();
+                boolean running = loop.tick();
+                long after = allocatedBytes();
+                if (running) {
+                    bytes += after - before;
+                } else {
+                    loop.restart();
+                }
+            }
+            if (bytes != 0) {
+                System.out.println(String.format(Locale.ROOT, "%-28s FAILED: %d B in %d ticks (window %d)",
+                        name, bytes, ALLOC_CHECK_TICKS, window));
+                return false;
+            }
+        }
+        System.out.println(String.format(Locale.ROOT, "%-28s 0 B in %d x %d ticks", name, ALLOC_CHECK_WINDOWS, ALLOC_CHECK_TICKS));
+        return true;
+    }
+
+    // Krok gry i klatka tak jak w GamePanel: naciśnięcie klawisza z kolejki, krok silnika, nagranie
+    // kroku (opcjonalnie), migawka i klatka. Przy aktywnym rysowaniu kafelki są tylko zaznaczane, a klatka
+    // to plansza z wynikiem i ruchem między krokami. Przy rysowaniu przez paintComponent (z pomiarami)
+    // invalidate zleca repaint kafelków, a klatka to plansza z wynikiem i nakładka pomiarów. Panel nie
+    // jest w oknie, więc RepaintManager odrzuca zlecenia od razu - sprawdzany jest koszt po stronie gry,
+    // nie łączenie obszarów na EDT.
+    private static final class GameLoop {
+        final GameEngine engine;
+        final ReplayRecorder recorder; // null - bez nagrywania
+        final TickTelemetry telemetry; // null - aktywne rysowanie bez pomiarów
+        final InputQueue input = new InputQueue();
+        final SnapshotExchange snapshots = new SnapshotExchange();
+        final BoardPainter painter = new BoardPainter(BoardPainter.VIEW_TILES_X, BoardPainter.VIEW_TILES_Y, TILE_SIZE);
+        final JPanel target = new JPanel();
+        final Graphics g = new BufferedImage(BoardPainter.VIEW_TILES_X * TILE_SIZE, BoardPainter.VIEW_TILES_Y * TILE_SIZE,
+                BufferedImage.TYPE_INT_RGB).getGraphics();
+
+        GameLoop(GameEngine engine, boolean record, boolean paintComponent) {
+            this.engine = engine;
+            this.recorder = record ? new ReplayRecorder() : null;
+            this.telemetry = paintComponent ? new TickTelemetry() : null;
+            engine.setTelemetry(telemetry);
+            target.setSize(BoardPainter.VIEW_TILES_X * TILE_SIZE, BoardPainter.VIEW_TILES_Y * TILE_SIZE);
+            restart();
+        }
+
+        void restart() {
+            engine.reset();
+            input.clear();
+            restartRecording();
+            snapshots.back().capture(engine);
+            snapshots.publish();
+            painter.markAll();
+        }
+
+        // Nowe nagranie od bieżącego stanu gry (bufory poprzedniego nagrania są używane ponownie)
+        void restartRecording() {
+            if (recorder != null) {
+                recorder.start(engine, SEED, ALLOC_KEYFRAME_INTERVAL);
+            }
+        }
+
+        // false, gdy krok zakończył grę
+        boolean tick() {
+            TickTelemetry t = telemetry;
+            long start = t == null ? 0 : System.nanoTime();
+            input.offer(PlayerController.HAMILTONIAN.decide(engine));
+            int events = engine.step(input.take(engine.getDirection(), t));
+            if (recorder != null) {
+                recorder.record(engine);
+            }
+            long published = t == null ? 0 : System.nanoTime();
+            snapshots.back().capture(engine);
+            snapshots.publish();
+            if (t != null) {
+                long end = System.nanoTime();
+                t.record(TickTelemetry.PUBLISH, end - published);
+                t.record(TickTelemetry.TICK, end - start);
+            }
+            if (!engine.isRunning()) {
+                return false;
+            }
+            if (t == null) {
+                painter.markDirty(engine);
+                painter.collectDirty();
+                FrameSnapshot frame = snapshots.acquire();
+                painter.paint(g, frame, target);
+                painter.paintScore(g, frame.getScore());
+                painter.paintMotion(g, frame, 0.5);
+                return true;
+            }
+            target.repaint(0, TILE_SIZE, TickTelemetry.OVERLAY_WIDTH, TickTelemetry.OVERLAY_HEIGHT);
+            if ((events & GameEngine.EVENT_FRUIT_EATEN) != 0) {
+                target.repaint(0, 0, 150, TILE_SIZE);
+            }
+            painter.invalidate(engine, target);
+            start = System.nanoTime();
+            painter.collectDirty();
+            FrameSnapshot frame = snapshots.acquire();
+            painter.paint(g, frame, target);
+            painter.paintScore(g, frame.getScore());
+            t.record(TickTelemetry.FRAME, System.nanoTime() - start);
+            t.drawOverlay(g, 0, TILE_SIZE);
+            return true;
+        }
+    }
+
+    // Bajty przydzielone dotąd przez bieżący wątek albo -1, jeśli JVM tego nie mierzy.
+    // Sam odczyt nie przydziela pamięci (obiekt zarządzający jest pobierany raz), więc można go
+    // wywoływać w każdym kroku sprawdzenia -alloc. Wersja z numerem wątku tego nie gwarantuje - jej
+    // sprawdzanie numeru potrafiło przydzielić kilkaset bajtów w trakcie pomiaru.
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported()) {
+                return threads;
+            }
+        }
+        return null;
+    }
+
+    // Krok gry jednoosobowej przy wężu gracza o zadanej długości (wąż rośnie po cyklu Hamiltona przed rundą)
+    private static Case singlePlayerStep(int length) {
+        return new Case("step/single/len=" + length, 20_000) {
+            GameEngine engine;
+
+            @Override
+            void setup() {
+                engine = new GameEngine(false, SEED);
+                while (engine.getSnakes().length(GameEngine.PLAYER) < length) {
+                    engine.step(PlayerController.HAMILTONIAN.decide(engine));
+                }
+            }
+
+            @Override
+            int run() {
+                return engine.step(PlayerController.HAMILTONIAN.decide(engine));
+            }
+        };
+    }
+
+    // Pełny krok gry z komputerem: gracz, dwa węże komputera (decyzje AI) i przeszkody.
+    // Na domyślnej planszy nazwa nie ma rozmiaru, żeby dało się porównać wyniki ze starszymi pomiarami.
+    // Przypadek z przyrostkiem /telemetry mierzy krok z włączonymi pomiarami faz (TickTelemetry).
+    private static Case computerStep(int width, int height, boolean telemetry) {
+        boolean defaultBoard = width == GameEngine.BOARD_TILES_X && height == GameEngine.BOARD_TILES_Y;
+        String name = defaultBoard ? "step/computer" : "step/computer/" + width + "x" + height;
+        return new Case(telemetry ? name + "/telemetry" : name, 20_000) {
+            GameEngine engine;
+
+            @Override
+            void setup() {
+                if (engine == null) {
+                    engine = new GameEngine(true, width, height, SEED);
+                    engine.setTelemetry(telemetry ? new TickTelemetry() : null);
+                }
+            }
+
+            @Override
+            int run() {
+                int events = engine.step(PlayerController.HAMILTONIAN.decide(engine));
+                if (!engine.isRunning()) {
+                    engine.reset();
+                }
+                return events;
+            }
+        };
+    }
+
+    // Krok areny z wieloma wężami komputera decydującymi na podanej liczbie wątków
+    // (gra zaczyna się od nowa po rozbiciu gracza)
+    private static Case arenaStep(int width, int height, int enemies, int threads) {
+        return new Case("step/arena/" + width + "x" + height + "/" + enemies + "/t" + threads, 500) {
+            final GameEngine engine = GameEngine.arena(width, height, enemies, SEED);
+
+            {
+                engine.setDecisionThreads(threads);
+            }
+
+            @Override
+            int run() {
+                int events = engine.step(PlayerController.HAMILTONIAN.decide(engine));
+                if (!engine.isRunning()) {
+                    engine.reset();
+                }
+                return events;
+            }
+        };
+    }
+
+    // Siatka z losowo zajętymi kafelkami (około 20%) jako tło dla pomiarów AI
+    private static OccupancyGrid randomGrid(Random random) {
+        OccupancyGrid grid = new OccupancyGrid(GameEngine.BOARD_TILES_X, GameEngine.BOARD_TILES_Y);
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (random.nextInt(5) == 0) {
+                    grid.addSegment(x, y);
+                }
+            }
+        }
+        return grid;
+    }
+
+    // Losowe wolne kafelki zapakowane jak w SnakeBodies
+    private static int[] randomFreeTiles(OccupancyGrid grid, Random random, int count) {
+        int[] tiles = new int[count];
+        for (int i = 0; i < count; ) {
+            int x = random.nextInt(grid.getWidth());
+            int y = random.nextInt(grid.getHeight());
+            if (grid.isFree(x, y)) {
+                tiles[i++] = SnakeBodies.pack(x, y);
+            }
+        }
+        return tiles;
+    }
+
+    // Wyszukanie kroku A* między losowymi parami kafelków
+    private static Case pathFinder() {
+        Random random = new Random(SEED);
+        OccupancyGrid grid = randomGrid(random);
+        PathFinder finder = new PathFinder(grid, GameEngine.AI_SEARCH_BUDGET);
+        int[] from = randomFreeTiles(grid, random, 1024);
+        int[] to = randomFreeTiles(grid, random, 1024);
+        return new Case("ai/path-finder", 20_000) {
+            int i;
+
+            @Override
+            int run() {
+                int k = i++ & 1023;
+                return finder.findStep(SnakeBodies.unpackX(from[k]), SnakeBodies.unpackY(from[k]),
+                        SnakeBodies.unpackX(to[k]), SnakeBodies.unpackY(to[k]), GameEngine.AI_SEARCH_BUDGET);
+            }
+        };
+    }
+
+    // Przeliczenie pola odległości od 5 owoców i odczyt kroku dla dwóch węży (jak w jednym kroku gry)
+    private static Case distanceField() {
+        Random random = new Random(SEED);
+        OccupancyGrid grid = randomGrid(random);
+        DistanceField field = new DistanceField(grid);
+        int[] heads = randomFreeTiles(grid, random, 1024);
+        int[] fruitTiles = randomFreeTiles(grid, random, 5);
+        List<GameEngine.Fruit> fruits = new ArrayList<>();
+        for (int tile : fruitTiles) {
+            fruits.add(new GameEngine.Fruit(new Point(SnakeBodies.unpackX(tile), SnakeBodies.unpackY(tile)), true));
+        }
+        return new Case("ai/distance-field", 20_000) {
+            int i;
+
+            @Override
+            int run() {
+                field.invalidate();
+                field.rebuild(fruits);
+                int a = heads[i++ & 1023];
+                int b = heads[i++ & 1023];
+                return field.nextStep(SnakeBodies.unpackX(a), SnakeBodies.unpackY(a))
+                        + field.nextStep(SnakeBodies.unpackX(b), SnakeBodies.unpackY(b));
+            }
+        };
+    }
+
+    // Losowanie miejsca na owoc na planszy zajętej w 90%
+    private static Case fruitPlacement() {
+        int tiles = GameEngine.BOARD_TILES_X * GameEngine.BOARD_TILES_Y;
+        Random random = new Random(SEED);
+        FreeCells cells = new FreeCells(tiles);
+        for (int t = 0; t < tiles; t++) {
+            if (random.nextInt(10) != 0) {
+                cells.remove(t);
+            }
+        }
+        return new Case("fruit/placement", 1_000_000) {
+            int previous = -1;
+
+            @Override
+            int run() {
+                int tile = cells.random(random);
+                cells.remove(tile);
+                if (previous >= 0) {
+                    cells.add(previous);
+                }
+                previous = tile;
+                return tile;
+            }
+        };
+    }
+
+    // Narysowanie klatki do obrazu poza ekranem: całej planszy albo tylko kafelków zmienionych w kroku
+    private static Case render(boolean full) {
+        GameEngine engine = new GameEngine(true, SEED);
+        for (int i = 0; i < 20; i++) {
+            engine.step(PlayerController.HAMILTONIAN.decide(engine));
+        }
+        FrameSnapshot frame = new FrameSnapshot();
+        frame.capture(engine);
+        int[] dirty = new int[engine.getDirtyCount()];
+        for (int i = 0; i < dirty.length; i++) {
+            dirty[i] = engine.getDirtyTile(i);
+        }
+        BoardPainter painter = new BoardPainter(BoardPainter.VIEW_TILES_X, BoardPainter.VIEW_TILES_Y, TILE_SIZE);
+        JPanel target = new JPanel();
+        BufferedImage screen = new BufferedImage(BoardPainter.VIEW_TILES_X * TILE_SIZE, BoardPainter.VIEW_TILES_Y * TILE_SIZE,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics g = screen.getGraphics();
+        if (!full) {
+            // Tak jak przy repaint(x, y, w, h): na ekran kopiowany jest tylko obszar zmienionych kafelków
+            Rectangle clip = new Rectangle();
+            for (int tile : dirty) {
+                clip.add(new Rectangle(SnakeBodies.unpackX(tile) * TILE_SIZE, SnakeBodies.unpackY(tile) * TILE_SIZE,
+                        TILE_SIZE, TILE_SIZE));
+            }
+            g.setClip(clip);
+        }
+        return new Case(full ? "render/full" : "render/dirty", full ? 1_000 : 20_000) {
+            @Override
+            int run() {
+                if (full) {
+                    painter.markAll();
+                } else {
+                    for (int tile : dirty) {
+                        painter.markDirty(tile);
+                    }
+                }
+                painter.collectDirty();
+                painter.paint(g, frame, target);
+                return screen.getRGB(0, 0);
+            }
+        };
+    }
+}
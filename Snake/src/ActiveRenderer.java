@@ -0,0 +1,165 @@
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+// Aktywne rysowanie: płótno (Canvas) ze strategią buforowania i własny wątek, który rysuje klatki
+// w stałym rytmie, zamiast czekać, aż RepaintManager złączy żądania repaint i wywoła paintComponent
+// na EDT. Bufory tylne są obrazami VolatileImage w pamięci karty graficznej; jeśli karta na to
+// pozwala, klatka jest pokazywana przez przełączenie stron (page flipping), a w przeciwnym razie
+// przez skopiowanie bufora. Rytm klatek odpowiada częstotliwości odświeżania ekranu (60 Hz, gdy jest
+// nieznana), a po pokazaniu klatki Toolkit.sync() opróżnia kolejkę potoku graficznego.
+// Włączane dla wszystkich gier właściwością: java -Dsnake.activeRendering=true ...
+public class ActiveRenderer extends Canvas implements Runnable {
+    // Rysowanie jednej klatki (na wątku rysującym); zwraca narysowaną migawkę
+    public interface Scene {
+        FrameSnapshot render(Graphics g);
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String PROPERTY = "snake.activeRendering";
+    private static final int FALLBACK_REFRESH_RATE = 60;
+
+    private final Scene scene;
+    private volatile boolean running;
+    private volatile TickTelemetry telemetry; // null - bez pomiarów
+    private boolean startWhenDisplayable;
+    private BufferStrategy strategy;
+    private Thread thread;
+    private FrameSnapshot lastFrame; // migawka poprzedniej klatki (nowa migawka to inny obiekt)
+
+    public ActiveRenderer(Scene scene) {
+        this.scene = scene;
+        setIgnoreRepaint(true); // wszystko rysuje wątek rysujący
+        setFocusable(false);    // klawisze odbiera panel gry
+        setBackground(Color.BLACK);
+    }
+
+    // Czy gry mają używać aktywnego rysowania zamiast paintComponent
+    public static boolean isRequested() {
+        return Boolean.getBoolean(PROPERTY);
+    }
+
+    // Włączenie (obiekt pomiarów) albo wyłączenie (null) pomiaru czasu i opóźnienia klatek
+    public void setTelemetry(TickTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    // Uruchomienie wątku rysującego. Strategia buforowania wymaga płótna umieszczonego w oknie,
+    // więc wcześniej wywołanie tylko zapamiętuje, że wątek ma ruszyć po dodaniu do okna.
+    public void start() {
+        if (running) return;
+        if (!isDisplayable()) {
+            startWhenDisplayable = true;
+            return;
+        }
+        startWhenDisplayable = false;
+        createStrategy(); // poprzednia strategia mogła zniknąć razem z usunięciem płótna z okna
+        running = true;
+        thread = new Thread(this, "snake-render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Zatrzymanie wątku rysującego - czeka na zakończenie bieżącej klatki, więc po powrocie
+    // migawki i bufor planszy mogą być znowu używane przez paintComponent na EDT
+    public void stop() {
+        startWhenDisplayable = false;
+        running = false;
+        Thread t = thread;
+        thread = null;
+        if (t != null && t != Thread.currentThread()) {
+            LockSupport.unpark(t);
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (startWhenDisplayable) {
+            start();
+        }
+    }
+
+    // Przed zwolnieniem zasobów płótna (peer, strategia buforowania) czekamy na koniec bieżącej klatki,
+    // żeby wątek rysujący nie wywołał show() na usuniętym płótnie. Wątek rysujący nie bierze blokady
+    // drzewa komponentów, więc czekanie pod nią jest bezpieczne.
+    @Override
+    public void removeNotify() {
+        stop();
+        super.removeNotify();
+    }
+
+    // Dwa bufory z przełączaniem stron w pamięci karty, a gdy to niemożliwe - zwykłe kopiowanie
+    private void createStrategy() {
+        try {
+            createBufferStrategy(2, new BufferCapabilities(new ImageCapabilities(true), new ImageCapabilities(true),
+                    BufferCapabilities.FlipContents.UNDEFINED));
+        } catch (AWTException e) {
+            createBufferStrategy(2);
+        }
+        strategy = getBufferStrategy();
+    }
+
+    // Okres klatki według częstotliwości odświeżania ekranu, na którym jest płótno
+    private long framePeriodNanos() {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        int rate = config != null ? config.getDevice().getDisplayMode().getRefreshRate() : DisplayMode.REFRESH_RATE_UNKNOWN;
+        return 1_000_000_000L / (rate > 0 ? rate : FALLBACK_REFRESH_RATE);
+    }
+
+    @Override
+    public void run() {
+        long period = framePeriodNanos();
+        long next = System.nanoTime();
+        while (running) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            renderFrame();
+            next += period;
+            // Po dłuższym przestoju (np. przeciąganie okna) nie nadrabiamy zaległych klatek
+            if (System.nanoTime() - next > period) {
+                next = System.nanoTime() + period;
+            }
+        }
+    }
+
+    // Narysowanie i pokazanie jednej klatki. Zawartość VolatileImage może zostać utracona (np. zmiana
+    // trybu ekranu), wtedy klatka jest rysowana ponownie. Opóźnienie klatki to czas od zapisania
+    // migawki przez wątek kroku do pokazania pierwszej klatki, która ją zawiera.
+    private void renderFrame() {
+        TickTelemetry t = telemetry;
+        long start = t == null ? 0 : System.nanoTime();
+        BufferStrategy strategy = this.strategy;
+        FrameSnapshot frame;
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    frame = scene.render(g);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+        boolean fresh = frame != lastFrame;
+        lastFrame = frame;
+        if (t != null) {
+            long now = System.nanoTime();
+            t.record(TickTelemetry.FRAME, now - start);
+            if (fresh) {
+                t.record(TickTelemetry.FRAME_LATENCY, now - frame.getCapturedNanos());
+            }
+        }
+    }
+}
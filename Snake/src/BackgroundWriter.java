@@ -0,0 +1,37 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Jeden wątek w tle do zapisów na dysk (rekordy, tabela wyników, nagrania gier, pomiary), żeby gra
+// i EDT nie czekały na dysk. Zadania wykonują się po kolei, w kolejności zgłoszenia.
+public final class BackgroundWriter {
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "background-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private BackgroundWriter() {
+    }
+
+    // Zgłoszenie zapisu; false, gdy program się zamyka i zadanie nie zostanie wykonane
+    public static boolean execute(Runnable task) {
+        try {
+            WRITER.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    // Zakończenie przyjmowania zadań i czekanie (najwyżej timeoutMillis) na wykonanie zgłoszonych
+    static void shutdown(long timeoutMillis) {
+        WRITER.shutdown();
+        try {
+            WRITER.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
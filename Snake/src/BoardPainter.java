@@ -0,0 +1,334 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Rysowanie widocznego fragmentu planszy do trwałego bufora z odświeżaniem tylko zmienionych kafelków.
+// Widok ma stały rozmiar w kafelkach, a kamera podąża za głową gracza, więc koszt klatki i pamięć
+// bufora nie zależą od rozmiaru planszy. Wątek symulacji zaznacza kafelki zmienione w kroku
+// (markDirty) w ograniczonej kolejce, a wątek EDT przy rysowaniu przerysowuje w buforze tylko te
+// z nich, które są w widoku, i kopiuje bufor na ekran w granicach obszaru repaint.
+public class BoardPainter {
+    // Rozmiar kafelka w pikselach i widoku w kafelkach (okno gry ma 800 x 600 pikseli)
+    public static final int TILE_SIZE = 25;
+    public static final int VIEW_TILES_X = 32;
+    public static final int VIEW_TILES_Y = 24;
+
+    // Kolory węży komputera według parzystości numeru: parzyste polują na gracza, nieparzyste idą do owoców
+    private static final Color PLAYER_COLOR = Color.GREEN;
+    private static final Color[] ENEMY_COLORS = {Color.MAGENTA, Color.BLUE};
+    private static final Color OUTSIDE_BOARD = Color.DARK_GRAY;
+    private static final int DIRTY_QUEUE_SIZE = 1024; // potęga dwójki
+    private static final String SCORE_PREFIX = "Score: ";
+
+    private final int tileSize;
+    private final int viewWidth;
+    private final int viewHeight;
+    private final SpriteCache sprites = new SpriteCache();
+    // Kolejka zmienionych kafelków: jeden wątek zapisuje (krok gry), jeden czyta (EDT).
+    // Przepełnienie kolejki wymusza przerysowanie całego widoku zamiast gubienia kafelków.
+    private final int[] queue = new int[DIRTY_QUEUE_SIZE];
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong taken = new AtomicLong();
+    private final int[] drainedTiles = new int[DIRTY_QUEUE_SIZE];
+    private int drainedCount;
+    private final long[] drained; // kafelki widoku do przerysowania
+    private final long[] occupied; // kafelki widoku zajęte w migawce rysowanej przez paintMotion
+    // Żądanie przerysowania całego widoku (przepełnienie kolejki, markAll) - przejmowane razem z kolejką
+    // w collectDirty, żeby dotyczyło migawki pobranej po nim, a nie starszej
+    private final AtomicBoolean fullRedrawRequested = new AtomicBoolean(true);
+    private boolean fullRedraw; // żądanie przejęte przez ostatnie collectDirty (wątek rysujący)
+    private BufferedImage buffer;
+    private Graphics2D bufferGraphics; // jeden kontekst rysowania bufora na cały czas życia bufora
+    private int bufferCameraX = -1;
+    private int bufferCameraY = -1;
+    private int bufferBoardWidth;
+    private int bufferBoardHeight;
+    private int invalidatedCameraX = -1; // kamera ostatniego invalidate (wątek symulacji)
+    private int invalidatedCameraY = -1;
+    // Napis wyniku z cyframi wpisywanymi w miejscu (bez tworzenia obiektu String przy zmianie wyniku)
+    private final char[] scoreText = (SCORE_PREFIX + Integer.MAX_VALUE).toCharArray();
+    private int scoreTextLength;
+    private int scoreTextValue = -1; // wynik zapisany w scoreText
+
+    // Rysowanie widoku o podanym rozmiarze w kafelkach
+    public BoardPainter(int viewWidth, int viewHeight, int tileSize) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        this.tileSize = tileSize;
+        this.drained = new long[(viewWidth * viewHeight + 63) >>> 6];
+        this.occupied = new long[drained.length];
+    }
+
+    // Pierwszy widoczny kafelek w jednym wymiarze. Kamera przesuwa się skokami o ćwierć widoku,
+    // tak żeby głowa gracza zostawała w środkowej części ekranu; między skokami obraz stoi w miejscu
+    // i wystarczy odświeżać zmienione kafelki. Wynik zależy tylko od położenia głowy.
+    public static int camera(int head, int view, int board) {
+        if (board <= view) return 0;
+        int step = Math.max(1, view / 4);
+        int camera = Math.floorDiv(head - view / 2 + step / 2, step) * step;
+        return Math.max(0, Math.min(camera, board - view));
+    }
+
+    // Zaznaczenie zmienionego kafelka (zapakowanego jak w SnakeBodies); wołane po opublikowaniu migawki
+    public void markDirty(int packed) {
+        long position = queued.get();
+        if (position - taken.get() >= queue.length) {
+            fullRedrawRequested.set(true);
+            return;
+        }
+        queue[(int) position & (queue.length - 1)] = packed;
+        queued.lazySet(position + 1);
+    }
+
+    // Wymuszenie przerysowania całego widoku przy następnej klatce
+    public void markAll() {
+        fullRedrawRequested.set(true);
+    }
+
+    // Zaznaczenie kafelków zmienionych w ostatnim kroku silnika bez zlecania repaint (przy aktywnym
+    // rysowaniu klatki powstają w stałym rytmie, a przeskok kamery paint wykrywa sam)
+    public void markDirty(GameEngine engine) {
+        for (int i = 0; i < engine.getDirtyCount(); i++) {
+            markDirty(engine.getDirtyTile(i));
+        }
+    }
+
+    // Zaznaczenie kafelków zmienionych w ostatnim kroku silnika i zlecenie odświeżenia ich obszaru
+    // w komponencie target. Gdy kamera przeskoczyła, odświeżany jest cały komponent. Wołane po
+    // opublikowaniu migawki, zawsze z tego samego wątku.
+    public void invalidate(GameEngine engine, JComponent target) {
+        SnakeBodies snakes = engine.getSnakes();
+        int cameraX = camera(snakes.headX(GameEngine.PLAYER), viewWidth, engine.getWidth());
+        int cameraY = camera(snakes.headY(GameEngine.PLAYER), viewHeight, engine.getHeight());
+        boolean moved = cameraX != invalidatedCameraX || cameraY != invalidatedCameraY;
+        invalidatedCameraX = cameraX;
+        invalidatedCameraY = cameraY;
+        for (int i = 0; i < engine.getDirtyCount(); i++) {
+            int tile = engine.getDirtyTile(i);
+            markDirty(tile);
+            int x = SnakeBodies.unpackX(tile) - cameraX;
+            int y = SnakeBodies.unpackY(tile) - cameraY;
+            if (!moved && x >= 0 && x < viewWidth && y >= 0 && y < viewHeight) {
+                target.repaint(x * tileSize, y * tileSize, tileSize, tileSize);
+            }
+        }
+        if (moved) {
+            target.repaint();
+        }
+    }
+
+    // Pobranie zaznaczonych kafelków. Musi być wywołane PRZED pobraniem migawki do narysowania:
+    // każdy kafelek (i żądanie przerysowania całego widoku) jest zaznaczany dopiero po opublikowaniu
+    // migawki, która go zmieniła.
+    public void collectDirty() {
+        if (fullRedrawRequested.getAndSet(false)) {
+            fullRedraw = true;
+        }
+        long end = queued.get();
+        long start = taken.get();
+        drainedCount = 0;
+        for (long i = start; i < end; i++) {
+            drainedTiles[drainedCount++] = queue[(int) i & (queue.length - 1)];
+        }
+        taken.lazySet(end);
+    }
+
+    // Aktualizacja bufora widoku z migawki i skopiowanie go na ekran
+    public void paint(Graphics g, FrameSnapshot frame, Component target) {
+        if (buffer == null) {
+            GraphicsConfiguration config = target.getGraphicsConfiguration();
+            buffer = config != null
+                    ? config.createCompatibleImage(viewWidth * tileSize, viewHeight * tileSize)
+                    : new BufferedImage(viewWidth * tileSize, viewHeight * tileSize, BufferedImage.TYPE_INT_RGB);
+            bufferGraphics = buffer.createGraphics();
+            fullRedraw = true;
+        }
+        int head = frame.snakeOffsets[1] > 0 ? frame.segments[0] : SnakeBodies.pack(frame.width / 2, frame.height / 2);
+        int cameraX = camera(SnakeBodies.unpackX(head), viewWidth, frame.width);
+        int cameraY = camera(SnakeBodies.unpackY(head), viewHeight, frame.height);
+        if (fullRedraw || cameraX != bufferCameraX || cameraY != bufferCameraY
+                || frame.width != bufferBoardWidth || frame.height != bufferBoardHeight) {
+            fullRedraw = false;
+            bufferCameraX = cameraX;
+            bufferCameraY = cameraY;
+            bufferBoardWidth = frame.width;
+            bufferBoardHeight = frame.height;
+            redraw(frame, target, true);
+        } else if (drainVisible()) {
+            redraw(frame, target, false);
+        }
+        g.drawImage(buffer, 0, 0, null);
+    }
+
+    // Wynik (nieujemny) w lewym górnym rogu; cyfry są przepisywane tylko przy zmianie wyniku
+    public void paintScore(Graphics g, int score) {
+        if (score != scoreTextValue) {
+            scoreTextValue = score;
+            int digits = 1;
+            for (int rest = score / 10; rest != 0; rest /= 10) {
+                digits++;
+            }
+            scoreTextLength = SCORE_PREFIX.length() + digits;
+            for (int i = scoreTextLength - 1, rest = score; i >= SCORE_PREFIX.length(); i--, rest /= 10) {
+                scoreText[i] = (char) ('0' + rest % 10);
+            }
+        }
+        g.setColor(Color.WHITE);
+        g.drawChars(scoreText, 0, scoreTextLength, 10, 10);
+    }
+
+    // Płynny ruch między krokami, rysowany na g po paint (poza buforem planszy). Bufor pokazuje stan po
+    // ostatnim kroku; przy postępie progress od 0 do 1 nowa głowa każdego węża wysuwa się z poprzedniej,
+    // a zdjęty ogon chowa się w kolejny segment, więc przy 0 widać stan sprzed kroku, a przy 1 - po kroku.
+    public void paintMotion(Graphics g, FrameSnapshot frame, double progress) {
+        if (progress >= 1 || buffer == null) return;
+        int hidden = (int) Math.round(tileSize * (1 - Math.max(0, progress)));
+        if (hidden == 0) return;
+        markOccupied(frame);
+        for (int s = 1; s < frame.snakeCount; s++) {
+            paintSnakeMotion(g, frame, s, hidden, ENEMY_COLORS[s % 2]);
+        }
+        paintSnakeMotion(g, frame, 0, hidden, PLAYER_COLOR);
+    }
+
+    // Zasłonięcie niewysuniętej części głowy i dorysowanie niewchowanej części ogona jednego węża
+    private void paintSnakeMotion(Graphics g, FrameSnapshot frame, int s, int hidden, Color color) {
+        int from = frame.snakeOffsets[s];
+        int to = frame.snakeOffsets[s + 1];
+        if (from == to) return;
+        int removed = frame.removedTails[s];
+        // Poprzednia głowa to drugi segment, a u węża z jednym segmentem - zdjęty ogon
+        int previousHead = to - from > 1 ? frame.segments[from + 1] : removed;
+        if (previousHead >= 0) {
+            g.setColor(Color.BLACK);
+            fillPart(g, frame.segments[from], previousHead, tileSize - hidden, hidden);
+        }
+        // Pole zdjętego ogona mogło już zająć coś innego (np. nowa głowa innego węża) - wtedy zostaje
+        // tak, jak jest w buforze
+        if (removed >= 0 && !isOccupied(removed)) {
+            g.setColor(color);
+            fillPart(g, removed, frame.segments[to - 1], 0, hidden);
+        }
+    }
+
+    // Zaznaczenie w masce occupied kafelków widoku zajętych w migawce przez węże, owoce i przeszkody
+    private void markOccupied(FrameSnapshot frame) {
+        Arrays.fill(occupied, 0L);
+        markOccupied(frame.segments, frame.snakeOffsets[frame.snakeCount]);
+        markOccupied(frame.fruits, frame.fruitCount);
+        markOccupied(frame.obstacles, frame.obstacleCount);
+    }
+
+    private void markOccupied(int[] tiles, int count) {
+        for (int i = 0; i < count; i++) {
+            int t = viewTile(tiles[i]);
+            if (t >= 0) {
+                occupied[t >>> 6] |= 1L << t;
+            }
+        }
+    }
+
+    private boolean isOccupied(int packed) {
+        int t = viewTile(packed);
+        return t >= 0 && (occupied[t >>> 6] & (1L << t)) != 0;
+    }
+
+    // Wypełnienie pasa kafelka tile o grubości size, zaczynającego się w odległości offset od boku
+    // zwróconego do sąsiedniego kafelka toward (nic, gdy kafelki nie sąsiadują albo tile jest poza widokiem)
+    private void fillPart(Graphics g, int tile, int toward, int offset, int size) {
+        int dx = SnakeBodies.unpackX(tile) - SnakeBodies.unpackX(toward);
+        int dy = SnakeBodies.unpackY(tile) - SnakeBodies.unpackY(toward);
+        if (Math.abs(dx) + Math.abs(dy) != 1 || viewTile(tile) < 0) return;
+        int x = (SnakeBodies.unpackX(tile) - bufferCameraX) * tileSize;
+        int y = (SnakeBodies.unpackY(tile) - bufferCameraY) * tileSize;
+        if (dx > 0) {
+            g.fillRect(x + offset, y, size, tileSize);
+        } else if (dx < 0) {
+            g.fillRect(x + tileSize - offset - size, y, size, tileSize);
+        } else if (dy > 0) {
+            g.fillRect(x, y + offset, tileSize, size);
+        } else {
+            g.fillRect(x, y + tileSize - offset - size, tileSize, size);
+        }
+    }
+
+    // Przeniesienie pobranych kafelków leżących w widoku do maski drained; false, gdy żaden nie jest widoczny
+    private boolean drainVisible() {
+        boolean any = false;
+        for (int i = 0; i < drainedCount; i++) {
+            int t = viewTile(drainedTiles[i]);
+            if (t >= 0) {
+                drained[t >>> 6] |= 1L << t;
+                any = true;
+            }
+        }
+        drainedCount = 0;
+        return any;
+    }
+
+    // Numer kafelka w widoku (y * viewWidth + x) albo -1, gdy kafelek jest poza widokiem
+    private int viewTile(int packed) {
+        int x = SnakeBodies.unpackX(packed) - bufferCameraX;
+        int y = SnakeBodies.unpackY(packed) - bufferCameraY;
+        if (x < 0 || x >= viewWidth || y < 0 || y >= viewHeight) return -1;
+        return y * viewWidth + x;
+    }
+
+    // Przerysowanie całego widoku albo tylko zaznaczonych kafelków w buforze
+    private void redraw(FrameSnapshot frame, Component target, boolean all) {
+        Graphics2D g = bufferGraphics;
+        if (all) {
+            g.setColor(OUTSIDE_BOARD);
+            g.fillRect(0, 0, buffer.getWidth(), buffer.getHeight());
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, Math.min(viewWidth, frame.width) * tileSize, Math.min(viewHeight, frame.height) * tileSize);
+        } else {
+            g.setColor(Color.BLACK);
+            for (int word = 0; word < drained.length; word++) {
+                long bits = drained[word];
+                while (bits != 0) {
+                    int t = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    g.fillRect((t % viewWidth) * tileSize, (t / viewWidth) * tileSize, tileSize, tileSize);
+                    bits &= bits - 1;
+                }
+            }
+        }
+        for (int i = 0; i < frame.fruitCount; i++) {
+            int tile = frame.fruits[i];
+            if (isVisible(tile, all)) {
+                Image image = sprites.fruit(frame.apples[i], target, tileSize);
+                g.drawImage(image, (SnakeBodies.unpackX(tile) - bufferCameraX) * tileSize,
+                        (SnakeBodies.unpackY(tile) - bufferCameraY) * tileSize, null);
+            }
+        }
+        g.setColor(Color.RED);
+        fillTiles(g, frame.obstacles, 0, frame.obstacleCount, all);
+        // Węże komputera w kolejności numerów, a wąż gracza na końcu, żeby był zawsze widoczny
+        for (int s = 1; s < frame.snakeCount; s++) {
+            g.setColor(ENEMY_COLORS[s % 2]);
+            fillTiles(g, frame.segments, frame.snakeOffsets[s], frame.snakeOffsets[s + 1], all);
+        }
+        g.setColor(PLAYER_COLOR);
+        fillTiles(g, frame.segments, frame.snakeOffsets[0], frame.snakeOffsets[1], all);
+        Arrays.fill(drained, 0L);
+    }
+
+    // Rysowanie kafelków z migawki od from do to (segmenty węża lub przeszkody)
+    private void fillTiles(Graphics g, int[] tiles, int from, int to, boolean all) {
+        for (int i = from; i < to; i++) {
+            if (isVisible(tiles[i], all)) {
+                g.fillRect((SnakeBodies.unpackX(tiles[i]) - bufferCameraX) * tileSize,
+                        (SnakeBodies.unpackY(tiles[i]) - bufferCameraY) * tileSize, tileSize, tileSize);
+            }
+        }
+    }
+
+    // Kafelek trzeba narysować, jeśli jest w widoku i (przy częściowym odświeżaniu) jest zaznaczony
+    private boolean isVisible(int packed, boolean all) {
+        int t = viewTile(packed);
+        return t >= 0 && (all || (drained[t >>> 6] & (1L << t)) != 0);
+    }
+}
@@ -0,0 +1,113 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Stała pula wątków wykonująca jedną fazę pracy na przedziale numerów (np. decyzje węży komputera).
+// Wątek wołający run pracuje razem z pulą i wraca dopiero po przetworzeniu całego przedziału.
+// Numery są pobierane porcjami ze wspólnego licznika, więc wolniejsze wątki biorą mniej pracy,
+// a zadanie dostaje numer wątku (0 - wątek wołający), żeby mogło używać własnych buforów.
+// Między fazami wątki śpią (park), a jedna faza nie tworzy żadnych nowych obiektów.
+public class DecisionWorkers {
+    // Zadanie wykonywane dla każdego numeru z przedziału
+    public interface Task {
+        void run(int worker, int item);
+    }
+
+    private static final int CHUNK = 4;
+
+    private final Thread[] threads;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile Task task;
+    private volatile int end;
+    private volatile int generation; // zwiększany na początku każdej fazy
+    private volatile boolean closed;
+    private volatile Thread caller;
+    private volatile Throwable failure;
+
+    // Pula z podaną łączną liczbą wątków (łącznie z wołającym, więc tworzy threads - 1 nowych)
+    public DecisionWorkers(int threads) {
+        this.threads = new Thread[Math.max(0, threads - 1)];
+        for (int i = 0; i < this.threads.length; i++) {
+            int worker = i + 1;
+            Thread thread = new Thread(() -> loop(worker), "snake-decide-" + worker);
+            thread.setDaemon(true);
+            this.threads[i] = thread;
+            thread.start();
+        }
+    }
+
+    // Łączna liczba wątków pracujących w fazie
+    public int getThreads() {
+        return threads.length + 1;
+    }
+
+    // Wykonanie zadania dla numerów od from do to (bez to) na wszystkich wątkach puli.
+    // Nie może być wołane równocześnie z kilku wątków.
+    public void run(Task task, int from, int to) {
+        if (closed) {
+            throw new IllegalStateException("Decision workers are closed");
+        }
+        this.task = task;
+        this.end = to;
+        this.caller = Thread.currentThread();
+        this.failure = null;
+        next.set(from);
+        pending.set(threads.length);
+        generation++; // zapis volatile publikuje zadanie wątkom puli
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+        }
+        runWork(0);
+        while (pending.get() > 0) {
+            LockSupport.park(this);
+        }
+        this.task = null;
+        Throwable error = failure;
+        if (error instanceof RuntimeException) throw (RuntimeException) error;
+        if (error instanceof Error) throw (Error) error;
+    }
+
+    // Zatrzymanie wątków puli (bez czekania na ich zakończenie)
+    public void close() {
+        closed = true;
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void loop(int worker) {
+        int seen = 0;
+        while (true) {
+            while (generation == seen && !closed) {
+                LockSupport.park(this);
+            }
+            if (closed) return;
+            seen = generation;
+            runWork(worker);
+            if (pending.decrementAndGet() == 0) {
+                LockSupport.unpark(caller);
+            }
+        }
+    }
+
+    // Praca jednego wątku w fazie; błąd zadania jest przekazywany wątkowi wołającemu
+    private void runWork(int worker) {
+        try {
+            work(worker);
+        } catch (Throwable e) {
+            failure = e;
+            next.set(end); // pozostałe wątki kończą fazę bez dalszej pracy
+        }
+    }
+
+    private void work(int worker) {
+        Task task = this.task;
+        int end = this.end;
+        for (int i = next.getAndAdd(CHUNK); i < end; i = next.getAndAdd(CHUNK)) {
+            int last = Math.min(i + CHUNK, end);
+            for (int item = i; item < last; item++) {
+                task.run(worker, item);
+            }
+        }
+    }
+}
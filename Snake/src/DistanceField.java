@@ -0,0 +1,120 @@
+import java.util.Arrays;
+import java.util.List;
+
+// Wspólne dla wszystkich węży komputera pole odległości do najbliższego owocu.
+// Liczone jednym przejściem BFS z wielu źródeł (wszystkich owoców) po wolnych kafelkach,
+// a potem każdy wąż odczytuje swój następny krok w O(1), porównując odległości sąsiadów głowy.
+public class DistanceField {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final char[] DIRECTIONS = {'L', 'R', 'U', 'D'};
+    private static final int[] DX = {-1, 1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+
+    private final OccupancyGrid grid;
+    private final int width;
+    private final int[] distance;
+    private final int[] queue;
+    private int head;
+    private int tail;
+    private boolean valid;
+
+    public DistanceField(OccupancyGrid grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.distance = new int[grid.getWidth() * grid.getHeight()];
+        this.queue = new int[distance.length];
+    }
+
+    // Oznaczenie pola jako nieaktualnego (przeliczy się przy następnym rebuild)
+    public void invalidate() {
+        valid = false;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    // Przeliczenie całego pola od podanych owoców
+    public void rebuild(List<GameEngine.Fruit> fruits) {
+        Arrays.fill(distance, UNREACHABLE);
+        head = 0;
+        tail = 0;
+        for (int i = 0; i < fruits.size(); i++) {
+            GameEngine.Fruit fruit = fruits.get(i);
+            seed(fruit.position.x, fruit.position.y);
+        }
+        propagate();
+        valid = true;
+    }
+
+    // Dołożenie nowego owocu bez przeliczania całego pola - odległości mogą tylko zmaleć,
+    // więc wystarczy BFS od nowego źródła zatrzymujący się tam, gdzie nic się nie poprawia.
+    // Każdy kafelek trafia do kolejki najwyżej raz, tak samo jak przy pełnym przeliczeniu.
+    public void addSource(int x, int y) {
+        if (!valid) return;
+        head = 0;
+        tail = 0;
+        seed(x, y);
+        propagate();
+    }
+
+    private void seed(int x, int y) {
+        if (!grid.isFree(x, y)) return;
+        int t = y * width + x;
+        if (distance[t] == 0) return;
+        distance[t] = 0;
+        queue[tail++] = t;
+    }
+
+    private void propagate() {
+        while (head < tail) {
+            int t = queue[head++];
+            int x = t % width;
+            int y = t / width;
+            int next = distance[t] + 1;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!grid.isFree(nx, ny)) continue;
+                int n = ny * width + nx;
+                if (distance[n] <= next) continue;
+                distance[n] = next;
+                queue[tail++] = n;
+            }
+        }
+    }
+
+    // Odległość od kafelka (x, y) do najbliższego owocu przez wolnego sąsiada albo UNREACHABLE.
+    // Kafelek (x, y) zwykle jest zajęty przez głowę węża, dlatego liczymy od sąsiadów.
+    public int distanceFrom(int x, int y) {
+        int best = UNREACHABLE;
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (!grid.isFree(nx, ny)) continue;
+            int dist = distance[ny * width + nx];
+            if (dist != UNREACHABLE && dist + 1 < best) {
+                best = dist + 1;
+            }
+        }
+        return best;
+    }
+
+    // Kierunek do wolnego sąsiada najbliższego owocowi albo 0, gdy żaden owoc nie jest osiągalny
+    public char nextStep(int x, int y) {
+        int best = UNREACHABLE;
+        char step = 0;
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (!grid.isFree(nx, ny)) continue;
+            int dist = distance[ny * width + nx];
+            if (dist < best) {
+                best = dist;
+                step = DIRECTIONS[d];
+            }
+        }
+        return step;
+    }
+}
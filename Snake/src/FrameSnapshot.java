@@ -0,0 +1,96 @@
+// Kopia stanu gry potrzebna do narysowania jednej klatki.
+// Wypełniana przez wątek symulacji, czytana przez wątek rysujący bez żadnej blokady
+// (wymianę buforów zapewnia SnapshotExchange). Tablice są używane ponownie między klatkami.
+// Segmenty wszystkich węży leżą jeden za drugim w jednej tablicy: wąż s zajmuje miejsca
+// od snakeOffsets[s] do snakeOffsets[s + 1], zaczynając od głowy.
+public class FrameSnapshot {
+    int[] segments = new int[64];
+    int[] snakeOffsets = new int[4];
+    int[] removedTails = new int[3]; // ogon zdjęty w kroku albo -1 (patrz GameEngine.getRemovedTail)
+    int snakeCount;
+    int[] fruits = new int[8];
+    boolean[] apples = new boolean[8];
+    int fruitCount;
+    int[] obstacles = new int[8];
+    int obstacleCount;
+    int width;  // rozmiar planszy w kafelkach
+    int height;
+    int score;
+    boolean running;
+    long tick;
+    long capturedNanos; // System.nanoTime() zapisania migawki (do pomiaru opóźnienia klatki)
+
+    // Skopiowanie aktualnego stanu silnika do tej migawki
+    public void capture(GameEngine engine) {
+        captureSnakes(engine);
+
+        int count = engine.getFruits().size();
+        if (fruits.length < count) {
+            fruits = new int[count * 2];
+            apples = new boolean[count * 2];
+        }
+        for (int i = 0; i < count; i++) {
+            GameEngine.Fruit fruit = engine.getFruits().get(i);
+            fruits[i] = SnakeBodies.pack(fruit.position.x, fruit.position.y);
+            apples[i] = fruit.isApple;
+        }
+        fruitCount = count;
+
+        count = engine.getObstacles().size();
+        if (obstacles.length < count) {
+            obstacles = new int[count * 2];
+        }
+        for (int i = 0; i < count; i++) {
+            GameEngine.Obstacle obstacle = engine.getObstacles().get(i);
+            obstacles[i] = SnakeBodies.pack(obstacle.position.x, obstacle.position.y);
+        }
+        obstacleCount = count;
+
+        width = engine.getWidth();
+        height = engine.getHeight();
+        score = engine.getScore();
+        running = engine.isRunning();
+        tick = engine.getTick();
+        capturedNanos = System.nanoTime();
+    }
+
+    private void captureSnakes(GameEngine engine) {
+        SnakeBodies bodies = engine.getSnakes();
+        int count = bodies.count();
+        if (snakeOffsets.length < count + 1) {
+            snakeOffsets = new int[(count + 1) * 2];
+            removedTails = new int[count * 2];
+        }
+        // Miejsce na tyle segmentów, ile mieszczą bufory węży silnika, więc tablica rośnie tylko razem
+        // z nimi, a nie przy każdym nowym rekordzie długości węża
+        int capacity = bodies.capacity();
+        if (segments.length < capacity) {
+            segments = new int[capacity];
+        }
+        int offset = 0;
+        for (int s = 0; s < count; s++) {
+            snakeOffsets[s] = offset;
+            bodies.copyTo(s, segments, offset);
+            offset += bodies.length(s);
+            removedTails[s] = engine.getRemovedTail(s);
+        }
+        snakeOffsets[count] = offset;
+        snakeCount = count;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public long getCapturedNanos() {
+        return capturedNanos;
+    }
+}
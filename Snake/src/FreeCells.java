@@ -0,0 +1,94 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// Zbiór pustych kafelków planszy jako maska bitowa z drzewem Fenwicka liczników słów.
+// Dodanie i usunięcie kosztują O(log n), a losowanie pustego kafelka wybiera k-ty ustawiony bit
+// w O(log n), więc owoce i przeszkody można stawiać bez ponawiania prób nawet na prawie zapełnionej
+// planszy. Wynik losowania zależy tylko od zbioru pustych kafelków, a nie od kolejności zmian,
+// dzięki czemu gra odtworzona z klatki kluczowej nagrania losuje dokładnie to samo co oryginał.
+public class FreeCells {
+    private final int tiles;
+    private final long[] words; // bit ustawiony - kafelek pusty
+    private final int[] tree;   // drzewo Fenwicka liczby pustych kafelków w słowach (indeksy od 1)
+    private int count;
+
+    public FreeCells(int tiles) {
+        this.tiles = tiles;
+        this.words = new long[(tiles + 63) >>> 6];
+        this.tree = new int[words.length + 1];
+        reset();
+    }
+
+    // Oznaczenie wszystkich kafelków jako pustych
+    public void reset() {
+        Arrays.fill(words, -1L);
+        if ((tiles & 63) != 0) {
+            words[words.length - 1] = (1L << tiles) - 1;
+        }
+        // Budowa drzewa w O(n): każdy węzeł przekazuje swoją sumę rodzicowi
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] = Long.bitCount(words[i - 1]);
+        }
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+        count = tiles;
+    }
+
+    public void add(int tile) {
+        long bit = 1L << tile;
+        int word = tile >>> 6;
+        if ((words[word] & bit) != 0) return;
+        words[word] |= bit;
+        update(word, 1);
+        count++;
+    }
+
+    public void remove(int tile) {
+        long bit = 1L << tile;
+        int word = tile >>> 6;
+        if ((words[word] & bit) == 0) return;
+        words[word] &= ~bit;
+        update(word, -1);
+        count--;
+    }
+
+    public boolean contains(int tile) {
+        return (words[tile >>> 6] & (1L << tile)) != 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Losowy pusty kafelek albo -1, gdy plansza jest pełna
+    public int random(Random random) {
+        return count == 0 ? -1 : select(random.nextInt(count));
+    }
+
+    private void update(int word, int delta) {
+        for (int i = word + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // k-ty (od zera) pusty kafelek w kolejności numerów kafelków
+    private int select(int k) {
+        int word = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>>= 1) {
+            int next = word + step;
+            if (next < tree.length && tree[next] <= k) {
+                word = next;
+                k -= tree[next];
+            }
+        }
+        long bits = words[word];
+        for (; k > 0; k--) {
+            bits &= bits - 1;
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+}
@@ -0,0 +1,929 @@
+import java.awt.Point;
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Silnik gry niezależny od Swinga - cała logika planszy, węży, owoców i przeszkód.
+// Współrzędne są przechowywane w kafelkach, a nie w pikselach. Rozmiar planszy jest podawany
+// przy tworzeniu silnika; stan kafelków trzymany jest w płaskich tablicach i maskach bitowych
+// (około 1,5 bajta na kafelek), więc plansza 10 000 x 10 000 mieści się w kilkuset MB.
+// Oprócz gry jednoosobowej i gry z dwoma wężami komputera silnik obsługuje arenę z dowolną liczbą
+// węży komputera; wszystkie węże, łącznie z wężem gracza, są trzymane we wspólnym SnakeBodies.
+// Na arenie krok węży komputera ma dwie fazy: w fazie decyzji każdy wąż wybiera kierunek, tylko
+// czytając stan planszy (więc węże mogą decydować równolegle, patrz setDecisionThreads), a w fazie
+// zatwierdzenia jeden wątek przesuwa węże w kolejności numerów. Wynik gry nie zależy od liczby wątków.
+public class GameEngine {
+    // Domyślny rozmiar planszy (tyle kafelków mieści okno gry)
+    public static final int BOARD_TILES_X = 32;
+    public static final int BOARD_TILES_Y = 24;
+
+    // Granice rozmiaru planszy - współrzędne muszą się zmieścić w 16 bitach zapakowanego kafelka
+    public static final int MIN_BOARD_TILES = 8;
+    public static final int MAX_BOARD_TILES = 10_000;
+
+    // Powyżej tej liczby kafelków pole odległości do owoców nie jest liczone (pełny BFS w każdym
+    // kroku kosztowałby za dużo), a węże komputera idą do najbliższego owocu wyszukiwaniem A*
+    public static final int DISTANCE_FIELD_MAX_TILES = 1 << 16;
+
+    // Zdarzenia zwracane przez step() i metody ruchu jako maska bitowa
+    public static final int EVENT_FRUIT_EATEN = 1;
+    public static final int EVENT_ENEMY_FRUIT_EATEN = 2;
+    public static final int EVENT_GAME_OVER = 4;
+
+    // Limit węzłów rozwijanych przez wyszukiwanie ścieżek wszystkich węży komputera w jednym kroku
+    public static final int AI_SEARCH_BUDGET = 4096;
+
+    // Najmniejszy limit wyszukiwania jednego węża na arenie. Na arenie każdy wąż ma własny limit
+    // (AI_SEARCH_BUDGET dzielony po równo), bo wspólny limit zależałby od kolejności decyzji.
+    public static final int ARENA_MIN_SEARCH_BUDGET = 64;
+
+    // Owoc jest "w pobliżu" drugiego przeciwnika, jeśli da się do niego dojść w tylu krokach
+    // (odpowiada dawnemu kwadratowi 5 kafelków wokół głowy)
+    public static final int FRUIT_NEARBY_STEPS = 10;
+
+    // Numery węży: gracz ma zawsze numer 0, a węże komputera kolejne numery od 1.
+    // Węże o numerach nieparzystych idą zawsze do owoców, a parzyste polują na gracza,
+    // jeśli owoc nie jest w pobliżu (tak jak pierwszy i drugi przeciwnik w grze z komputerem).
+    public static final int PLAYER = 0;
+    public static final int ENEMY = 1;
+    public static final int SECOND_ENEMY = 2;
+
+    private final int width;
+    private final int height;
+    private final boolean playWithComputer;
+    private final boolean arena;
+    private final int fruitCount;
+    private final int obstacleCount;
+    private final GameRandom random;
+    private final OccupancyGrid grid;
+    private final FreeCells freeCells;
+    private final DistanceField fruitField; // null na dużych planszach
+    private final int snakeSearchBudget;    // limit wyszukiwania jednego węża na arenie
+
+    private final SnakeBodies snakes;
+    private final int[] crashedSnakes; // numery węży rozbitych w ostatnim sprawdzeniu kolizji
+    private final int[] removedTails;  // ogon zdjęty w ostatnim kroku (zapakowany) albo -1, gdy wąż urósł
+    // Głowy węży sprzed ruchu w bieżącym kroku (zapakowane, -1 - wąż pusty albo stan z klatki kluczowej)
+    // i tablica mieszająca: kafelek takiej głowy -> numer węża + 1 (0 - wolne miejsce)
+    private final int[] previousHeads;
+    private final int[] previousHeadOwners;
+    private int crashedCount;
+    private List<Fruit> fruits;
+    private List<Obstacle> obstacles;
+    private char direction;
+    private boolean running;
+    private int score;
+    private long tick;
+    private int crashed;
+    private int[] dirtyTiles = new int[64];
+    private int dirtyCount;
+    // Bufory fazy decyzji osobne dla każdego wątku: wyszukiwanie ścieżek i pozostały limit węzłów
+    private PathFinder[] pathFinders;
+    private int[] searchBudgets;
+    private final char[] decisions;        // kierunki wybrane w fazie decyzji (0 - brak wolnego kierunku)
+    private final DecisionWorkers.Task decideTask = this::decideOnArena;
+    private DecisionWorkers workers;       // null - decyzje na wątku kroku
+    private volatile TickTelemetry telemetry; // null - bez pomiarów
+
+    // Konstruktor silnika - tryb jednoosobowy ma jeden owoc i brak przeszkód
+    public GameEngine(boolean playWithComputer) {
+        this(playWithComputer, BOARD_TILES_X, BOARD_TILES_Y, new GameRandom());
+    }
+
+    // Konstruktor z ustalonym ziarnem losowania - ta sama seria ruchów daje zawsze tę samą grę
+    public GameEngine(boolean playWithComputer, long seed) {
+        this(playWithComputer, BOARD_TILES_X, BOARD_TILES_Y, new GameRandom(seed));
+    }
+
+    // Konstruktor silnika z planszą o podanym rozmiarze w kafelkach
+    public GameEngine(boolean playWithComputer, int width, int height) {
+        this(playWithComputer, width, height, new GameRandom());
+    }
+
+    public GameEngine(boolean playWithComputer, int width, int height, long seed) {
+        this(playWithComputer, width, height, new GameRandom(seed));
+    }
+
+    private GameEngine(boolean playWithComputer, int width, int height, GameRandom random) {
+        this(playWithComputer, false, playWithComputer ? 2 : 0, width, height, random);
+    }
+
+    // Arena: gracz i enemies węży komputera. Rozbity wąż komputera znika z planszy, a gra kończy się
+    // dopiero po rozbiciu węża gracza. Owoców jest tyle co węży komputera (co najmniej 5),
+    // a przeszkód jedna na dziesięć węży (co najmniej 3).
+    public static GameEngine arena(int width, int height, int enemies, long seed) {
+        return new GameEngine(true, true, enemies, width, height, new GameRandom(seed));
+    }
+
+    private GameEngine(boolean playWithComputer, boolean arena, int enemies, int width, int height, GameRandom random) {
+        if (width < MIN_BOARD_TILES || width > MAX_BOARD_TILES || height < MIN_BOARD_TILES || height > MAX_BOARD_TILES) {
+            throw new IllegalArgumentException("Board size must be between " + MIN_BOARD_TILES + " and "
+                    + MAX_BOARD_TILES + " tiles: " + width + "x" + height);
+        }
+        if (enemies < 0 || enemies >= width * height / 2) {
+            throw new IllegalArgumentException("Too many computer snakes for the board: " + enemies);
+        }
+        this.random = random;
+        this.width = width;
+        this.height = height;
+        this.playWithComputer = playWithComputer;
+        this.arena = arena;
+        this.fruitCount = arena ? Math.max(5, enemies) : playWithComputer ? 5 : 1;
+        this.obstacleCount = arena ? Math.max(3, enemies / 10) : playWithComputer ? 3 : 0;
+        this.grid = new OccupancyGrid(width, height);
+        this.freeCells = new FreeCells(width * height);
+        this.snakeSearchBudget = Math.max(ARENA_MIN_SEARCH_BUDGET, AI_SEARCH_BUDGET / Math.max(1, enemies));
+        this.fruitField = width * height <= DISTANCE_FIELD_MAX_TILES ? new DistanceField(grid) : null;
+        // Ciała węży rosną przez podwojenie, więc nie rezerwujemy miejsca na całą planszę z góry. Na arenie
+        // każdy wąż dostaje od razu miejsce na swoją część planszy, żeby bufory nie rosły w trakcie gry.
+        this.snakes = new SnakeBodies(1 + enemies, Math.min(arena ? width * height / (1 + enemies) : width * height + 1, 1024));
+        this.crashedSnakes = new int[1 + enemies];
+        this.removedTails = new int[1 + enemies];
+        this.previousHeads = new int[1 + enemies];
+        this.previousHeadOwners = new int[Integer.highestOneBit(2 * (1 + enemies)) << 1]; // zapełniona najwyżej w połowie
+        this.decisions = new char[1 + enemies];
+        setDecisionThreads(1);
+        reset();
+    }
+
+    // Liczba wątków fazy decyzji węży komputera na arenie (1 - bez dodatkowych wątków). Poza areną
+    // każdy wąż decyduje po ruchu poprzedniego, więc decyzje zawsze zapadają na wątku kroku.
+    // Nie może być wołane w trakcie kroku; dodatkowe wątki zwalnia dopiero setDecisionThreads(1).
+    public void setDecisionThreads(int threads) {
+        threads = arena ? Math.max(1, threads) : 1;
+        if (workers != null) {
+            workers.close();
+            workers = null;
+        }
+        pathFinders = new PathFinder[threads];
+        for (int i = 0; i < threads; i++) {
+            pathFinders[i] = new PathFinder(grid, arena ? snakeSearchBudget : AI_SEARCH_BUDGET);
+        }
+        searchBudgets = new int[threads];
+        if (threads > 1) {
+            workers = new DecisionWorkers(threads);
+        }
+    }
+
+    public int getDecisionThreads() {
+        return pathFinders.length;
+    }
+
+    // Przywracanie stanu początkowego gry z nowym ziarnem losowania (np. dla nagrywanej gry)
+    public void reset(long seed) {
+        random.setSeed(seed);
+        reset();
+    }
+
+    // Przywracanie stanu początkowego gry
+    public void reset() {
+        snakes.clear();
+        fruits = new ArrayList<>();
+        obstacles = new ArrayList<>();
+        grid.clear();
+        freeCells.reset();
+        addHead(PLAYER, width / 2, height / 2);
+        if (arena) {
+            // Węże komputera startują z losowych pustych kafelków
+            for (int s = 1; s < snakes.count(); s++) {
+                int tile = freeCells.random(random);
+                if (tile >= 0) {
+                    addHead(s, tile % width, tile / width);
+                }
+            }
+        } else if (playWithComputer) {
+            addHead(ENEMY, width / 4, height / 4);
+            addHead(SECOND_ENEMY, 3 * width / 4, 3 * height / 4);
+        }
+        direction = 'R';
+        placeFruits();
+        placeObstacles();
+        running = true;
+        score = 0;
+        tick = 0;
+        crashed = 0;
+        crashedCount = 0;
+        dirtyCount = 0;
+        Arrays.fill(removedTails, -1);
+        forgetHeads();
+    }
+
+    // Jeden pełny krok symulacji: zmiana kierunku, ruch węży, przeszkód i sprawdzenie kolizji
+    public int step(char input) {
+        if (!running) {
+            return EVENT_GAME_OVER;
+        }
+        dirtyCount = 0;
+        Arrays.fill(removedTails, -1);
+        if (fruitField != null) {
+            fruitField.invalidate(); // węże przesunęły się od poprzedniego kroku
+        }
+        rememberHeads();
+        turn(input);
+        TickTelemetry telemetry = this.telemetry;
+        long time = clock(telemetry);
+        int events = movePlayer();
+        time = lap(telemetry, TickTelemetry.PLAYER, time);
+        if (arena) {
+            decideArenaEnemies();
+            time = lap(telemetry, TickTelemetry.ENEMY_DECIDE, time);
+            events |= commitArenaEnemies();
+            time = lap(telemetry, TickTelemetry.ENEMY_COMMIT, time);
+            moveObstacles();
+            time = lap(telemetry, TickTelemetry.OBSTACLES, time);
+        } else if (playWithComputer) {
+            // Każdy wąż decyduje po ruchu poprzedniego, a limit wyszukiwania jest wspólny dla kroku
+            searchBudgets[0] = AI_SEARCH_BUDGET;
+            long decideNanos = 0;
+            long commitNanos = 0;
+            for (int s = 1; s < snakes.count(); s++) {
+                if (fruitField != null) {
+                    ensureFruitField(); // owoc zjedzony przez poprzedniego węża unieważnia pole
+                }
+                char dir = decide(s, 0);
+                long decided = clock(telemetry);
+                events |= commitEnemyMove(s, dir);
+                decideNanos += decided - time;
+                time = clock(telemetry);
+                commitNanos += time - decided;
+            }
+            if (telemetry != null) {
+                telemetry.record(TickTelemetry.ENEMY_DECIDE, decideNanos);
+                telemetry.record(TickTelemetry.ENEMY_COMMIT, commitNanos);
+            }
+            moveObstacles();
+            time = lap(telemetry, TickTelemetry.OBSTACLES, time);
+        }
+        events |= checkCollision();
+        lap(telemetry, TickTelemetry.COLLISION, time);
+        tick++;
+        return events;
+    }
+
+    // Włączenie (obiekt pomiarów) albo wyłączenie (null) pomiaru czasu faz kroku.
+    // Może być wołane z innego wątku - zmiana obowiązuje od następnego kroku.
+    public void setTelemetry(TickTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    // Bieżący czas do pomiaru fazy (0, gdy pomiary są wyłączone)
+    private static long clock(TickTelemetry telemetry) {
+        return telemetry == null ? 0 : System.nanoTime();
+    }
+
+    // Zapisanie czasu fazy rozpoczętej w start, zwraca początek następnej fazy
+    private static long lap(TickTelemetry telemetry, int metric, long start) {
+        if (telemetry == null) return 0;
+        long now = System.nanoTime();
+        telemetry.record(metric, now - start);
+        return now;
+    }
+
+    // Zmiana kierunku węża gracza (zawracanie o 180 stopni jest ignorowane)
+    public void turn(char newDirection) {
+        if (isTurn(direction, newDirection)) {
+            direction = newDirection;
+        }
+    }
+
+    // Czy kierunek next zmienia ruch w kierunku current (nie jest tym samym kierunkiem ani zawróceniem)
+    public static boolean isTurn(char current, char next) {
+        return next == 'L' && current != 'R' && current != 'L'
+                || next == 'R' && current != 'L' && current != 'R'
+                || next == 'U' && current != 'D' && current != 'U'
+                || next == 'D' && current != 'U' && current != 'D';
+    }
+
+    // Umieszczanie owoców na planszy
+    private void placeFruits() {
+        for (int i = 0; i < fruitCount; i++) {
+            Fruit fruit = new Fruit(new Point(), false);
+            if (!spawnFruit(fruit)) {
+                break;
+            }
+            fruits.add(fruit);
+        }
+    }
+
+    // Przeniesienie owocu na losowy pusty kafelek; false, gdy plansza jest pełna
+    private boolean spawnFruit(Fruit fruit) {
+        int tile = freeCells.random(random);
+        if (tile < 0) {
+            return false;
+        }
+        int x = tile % width;
+        int y = tile / width;
+        fruit.position.setLocation(x, y);
+        fruit.isApple = random.nextBoolean();
+        grid.setFruit(x, y, true);
+        freeCells.remove(tile);
+        if (fruitField != null && !arena) {
+            fruitField.addSource(x, y);
+        }
+        markDirty(x, y);
+        return true;
+    }
+
+    // Umieszczanie przeszkód na planszy
+    private void placeObstacles() {
+        obstacles.clear();
+        for (int i = 0; i < obstacleCount; i++) {
+            int tile = freeCells.random(random);
+            if (tile < 0) {
+                break;
+            }
+            int x = tile % width;
+            int y = tile / width;
+            obstacles.add(new Obstacle(new Point(x, y), randomDirection()));
+            grid.setObstacle(x, y);
+            freeCells.remove(tile);
+        }
+    }
+
+    // Aktualizacja indeksu pustych kafelków po zmianie zawartości kafelka
+    private void refreshFree(int x, int y) {
+        if (!grid.inBounds(x, y)) return;
+        if (grid.isEmpty(x, y)) {
+            freeCells.add(grid.tile(x, y));
+        } else {
+            freeCells.remove(grid.tile(x, y));
+        }
+    }
+
+    // Losowanie kierunku ruchu dla przeszkody
+    private char randomDirection() {
+        char[] directions = {'L', 'R', 'U', 'D'};
+        return directions[random.nextInt(directions.length)];
+    }
+
+    // Zapamiętanie kafelka zmienionego w bieżącym kroku (do odświeżania tylko zmienionych obszarów)
+    private void markDirty(int x, int y) {
+        if (dirtyCount == dirtyTiles.length) {
+            dirtyTiles = Arrays.copyOf(dirtyTiles, dirtyCount * 2);
+        }
+        dirtyTiles[dirtyCount++] = SnakeBodies.pack(x, y);
+    }
+
+    // Przesunięcie współrzędnej x o jeden kafelek w podanym kierunku
+    private static int stepX(int x, char dir) {
+        return dir == 'L' ? x - 1 : dir == 'R' ? x + 1 : x;
+    }
+
+    // Przesunięcie współrzędnej y o jeden kafelek w podanym kierunku
+    private static int stepY(int y, char dir) {
+        return dir == 'U' ? y - 1 : dir == 'D' ? y + 1 : y;
+    }
+
+    // Dodanie głowy węża wraz z aktualizacją siatki zajętości
+    private void addHead(int s, int x, int y) {
+        snakes.addHead(s, x, y);
+        grid.addSegment(x, y);
+        refreshFree(x, y);
+        markDirty(x, y);
+    }
+
+    // Usunięcie ogona węża wraz z aktualizacją siatki zajętości
+    private void removeTail(int s) {
+        int tail = snakes.removeTail(s);
+        removedTails[s] = tail;
+        int x = SnakeBodies.unpackX(tail);
+        int y = SnakeBodies.unpackY(tail);
+        grid.removeSegment(x, y);
+        refreshFree(x, y);
+        markDirty(x, y);
+    }
+
+    // Zjedzenie owocu leżącego pod głową węża, zwraca true jeśli owoc został zjedzony.
+    // Na nowe miejsce przenoszony jest tylko zjedzony owoc.
+    private boolean eatFruit(int s) {
+        int x = snakes.headX(s);
+        int y = snakes.headY(s);
+        if (!grid.inBounds(x, y) || !grid.hasFruit(x, y)) {
+            return false;
+        }
+        grid.setFruit(x, y, false);
+        // Usunięcie źródła wymaga pełnego przeliczenia. Na arenie pole jest czytane tylko w fazie decyzji,
+        // przed zjedzeniem owoców, więc wystarcza przeliczenie na początku następnego kroku.
+        if (fruitField != null && !arena) {
+            fruitField.invalidate();
+        }
+        for (int i = 0; i < fruits.size(); i++) {
+            Fruit fruit = fruits.get(i);
+            if (fruit.position.x == x && fruit.position.y == y) {
+                if (!spawnFruit(fruit)) {
+                    fruits.remove(i);
+                }
+                break;
+            }
+        }
+        return true;
+    }
+
+    // Ruch węża gracza
+    private int movePlayer() {
+        addHead(PLAYER, stepX(snakes.headX(PLAYER), direction), stepY(snakes.headY(PLAYER), direction));
+        if (eatFruit(PLAYER)) {
+            score++;
+            return EVENT_FRUIT_EATEN;
+        }
+        removeTail(PLAYER);
+        return 0;
+    }
+
+    // Ruch przeszkód (z zawijaniem na krawędziach planszy)
+    private void moveObstacles() {
+        // Zdejmujemy tylko kafelki przeszkód, żeby koszt kroku nie zależał od rozmiaru planszy.
+        // Pętle po indeksach, bo iterator listy byłby nowym obiektem w każdym kroku.
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obstacle = obstacles.get(i);
+            grid.clearObstacle(obstacle.position.x, obstacle.position.y);
+        }
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obstacle = obstacles.get(i);
+            refreshFree(obstacle.position.x, obstacle.position.y);
+            markDirty(obstacle.position.x, obstacle.position.y);
+            obstacle.position.x = stepX(obstacle.position.x, obstacle.direction);
+            obstacle.position.y = stepY(obstacle.position.y, obstacle.direction);
+            if (obstacle.position.x < 0) obstacle.position.x = width - 1;
+            if (obstacle.position.x >= width) obstacle.position.x = 0;
+            if (obstacle.position.y < 0) obstacle.position.y = height - 1;
+            if (obstacle.position.y >= height) obstacle.position.y = 0;
+        }
+        // Przeszkody mogą na siebie wejść, więc zajmujemy kafelki dopiero po przesunięciu wszystkich
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obstacle = obstacles.get(i);
+            grid.setObstacle(obstacle.position.x, obstacle.position.y);
+            freeCells.remove(grid.tile(obstacle.position.x, obstacle.position.y));
+            markDirty(obstacle.position.x, obstacle.position.y);
+        }
+    }
+
+    // Ruch węży komputera na arenie w dwóch fazach. Faza decyzji tylko czyta planszę po ruchu gracza
+    // (pole odległości jest przeliczane przed nią), więc węże mogą decydować równolegle, a każdy ma
+    // własny limit wyszukiwania. Faza zatwierdzenia przesuwa węże po kolei według numerów. Węże, których
+    // nowe głowy trafiły na ten sam kafelek albo które zamieniły się miejscami, rozbijają się wszystkie
+    // przy sprawdzaniu kolizji, niezależnie od kolejności; owoc na takim kafelku zjada wąż o niższym numerze.
+    private void decideArenaEnemies() {
+        if (fruitField != null) {
+            ensureFruitField();
+        }
+        if (workers != null) {
+            workers.run(decideTask, 1, snakes.count());
+        } else {
+            for (int s = 1; s < snakes.count(); s++) {
+                decideOnArena(0, s);
+            }
+        }
+    }
+
+    // Faza zatwierdzenia ruchów węży areny w kolejności numerów (patrz decideArenaEnemies)
+    private int commitArenaEnemies() {
+        int events = 0;
+        for (int s = 1; s < snakes.count(); s++) {
+            if (snakes.isEmpty(s)) continue; // wąż usunięty z areny
+            events |= commitEnemyMove(s, decisions[s]);
+        }
+        return events;
+    }
+
+    // Decyzja jednego węża areny na wątku worker (zadanie fazy decyzji)
+    private void decideOnArena(int worker, int enemy) {
+        if (snakes.isEmpty(enemy)) return;
+        searchBudgets[worker] = snakeSearchBudget;
+        decisions[enemy] = decide(enemy, worker);
+    }
+
+    // Zatwierdzenie ruchu węża komputera w wybranym kierunku: nowa głowa, potem zjedzenie owocu
+    // albo usunięcie ogona. Bez kierunku wąż zostaje w miejscu, czyli wchodzi sam na siebie.
+    private int commitEnemyMove(int enemy, char dir) {
+        addHead(enemy, stepX(snakes.headX(enemy), dir), stepY(snakes.headY(enemy), dir));
+        if (eatFruit(enemy)) {
+            return EVENT_ENEMY_FRUIT_EATEN;
+        }
+        removeTail(enemy);
+        return 0;
+    }
+
+    // Wybór kierunku węża komputera. Tylko czyta stan gry (zapisuje wyłącznie bufory wątku worker),
+    // więc poza kolejnością zatwierdzania nic nie zależy od tego, na którym wątku zapada decyzja.
+    private char decide(int enemy, int worker) {
+        return enemy % 2 == 1 ? decideEnemy(enemy, worker) : decideSecondEnemy(enemy, worker);
+    }
+
+    // Wąż komputera idący zawsze do najbliższego owocu (pierwszy przeciwnik, numery nieparzyste)
+    private char decideEnemy(int enemy, int worker) {
+        if (fruitField == null) {
+            return towardsNearestFruit(enemy, worker);
+        }
+        char dir = fruitField.nextStep(snakes.headX(enemy), snakes.headY(enemy));
+        return dir != 0 ? dir : towards(enemy, snakes.headX(PLAYER), snakes.headY(PLAYER), worker);
+    }
+
+    // Wąż komputera idący do owocu, jeśli jest w pobliżu, a w przeciwnym razie w stronę gracza
+    // (drugi przeciwnik, numery parzyste)
+    private char decideSecondEnemy(int enemy, int worker) {
+        int headX = snakes.headX(enemy);
+        int headY = snakes.headY(enemy);
+        if (fruitField == null) {
+            // Bez pola odległości "w pobliżu" oznacza odległość w linii prostej po kafelkach
+            int nearest = nearestFruit(headX, headY);
+            boolean fruitNearby = nearest >= 0 && manhattan(fruits.get(nearest), headX, headY) <= FRUIT_NEARBY_STEPS;
+            return fruitNearby
+                    ? towardsNearestFruit(enemy, worker)
+                    : towards(enemy, snakes.headX(PLAYER), snakes.headY(PLAYER), worker);
+        }
+
+        if (fruitField.distanceFrom(headX, headY) <= FRUIT_NEARBY_STEPS) {
+            char dir = fruitField.nextStep(headX, headY);
+            if (dir != 0) {
+                return dir;
+            }
+        }
+        return towards(enemy, snakes.headX(PLAYER), snakes.headY(PLAYER), worker);
+    }
+
+    // Kierunek do najbliższego (w linii prostej po kafelkach) owocu, a bez owoców w stronę gracza
+    private char towardsNearestFruit(int enemy, int worker) {
+        int nearest = nearestFruit(snakes.headX(enemy), snakes.headY(enemy));
+        if (nearest < 0) {
+            return towards(enemy, snakes.headX(PLAYER), snakes.headY(PLAYER), worker);
+        }
+        Fruit fruit = fruits.get(nearest);
+        return towards(enemy, fruit.position.x, fruit.position.y, worker);
+    }
+
+    // Indeks owocu najbliższego kafelkowi albo -1, gdy na planszy nie ma owoców
+    private int nearestFruit(int x, int y) {
+        int nearest = -1;
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < fruits.size(); i++) {
+            int distance = manhattan(fruits.get(i), x, y);
+            if (distance < best) {
+                best = distance;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+
+    private static int manhattan(Fruit fruit, int x, int y) {
+        return Math.abs(fruit.position.x - x) + Math.abs(fruit.position.y - y);
+    }
+
+    // Przeliczenie pola odległości do owoców, jeśli jest nieaktualne (najwyżej raz na krok,
+    // chyba że w trakcie kroku zostanie zjedzony owoc)
+    private void ensureFruitField() {
+        if (!fruitField.isValid()) {
+            fruitField.rebuild(fruits);
+        }
+    }
+
+    // Kierunek węża przeciwnika na najkrótszej ścieżce do celu. Gdy w limicie wyszukiwania wątku
+    // worker nie ma ścieżki, wybierany jest pierwszy bezpieczny kierunek w stronę celu, a gdy żaden
+    // nie jest bezpieczny - 0. Cel dalszy niż pozostały limit (możliwy tylko na dużych planszach)
+    // nie jest w ogóle szukany - każdy rozwinięty węzeł przybliża ścieżkę najwyżej o jeden kafelek.
+    private char towards(int enemy, int targetX, int targetY, int worker) {
+        int headX = snakes.headX(enemy);
+        int headY = snakes.headY(enemy);
+
+        int budget = searchBudgets[worker];
+        if (budget > 0 && Math.abs(targetX - headX) + Math.abs(targetY - headY) <= budget) {
+            PathFinder pathFinder = pathFinders[worker];
+            char dir = pathFinder.findStep(headX, headY, targetX, targetY, budget);
+            searchBudgets[worker] = budget - pathFinder.getExpanded();
+            if (dir != 0 && grid.isFree(stepX(headX, dir), stepY(headY, dir))) {
+                return dir;
+            }
+        }
+
+        int dx = targetX - headX;
+        int dy = targetY - headY;
+
+        // Najpierw wzdłuż dłuższej osi, potem krótszej, a na końcu od celu (bez tablicy kierunków,
+        // żeby krok nie przydzielał pamięci)
+        char horizontal = dx > 0 ? 'R' : 'L';
+        char vertical = dy > 0 ? 'D' : 'U';
+        boolean alongX = Math.abs(dx) > Math.abs(dy);
+        char first = alongX ? horizontal : vertical;
+        char second = alongX ? vertical : horizontal;
+        if (isFreeStep(headX, headY, first)) return first;
+        if (isFreeStep(headX, headY, second)) return second;
+        if (isFreeStep(headX, headY, reverse(second))) return reverse(second);
+        if (isFreeStep(headX, headY, reverse(first))) return reverse(first);
+        return 0;
+    }
+
+    private boolean isFreeStep(int x, int y, char dir) {
+        return grid.isFree(stepX(x, dir), stepY(y, dir));
+    }
+
+    private static char reverse(char dir) {
+        switch (dir) {
+            case 'L': return 'R';
+            case 'R': return 'L';
+            case 'U': return 'D';
+            default: return 'U';
+        }
+    }
+
+    // Sprawdzanie kolizji. W grze z komputerem każda kolizja kończy grę; na arenie rozbite węże
+    // komputera są usuwane z planszy, a gra kończy się tylko po rozbiciu gracza.
+    private int checkCollision() {
+        crashed = findCrashed();
+        if (!arena && crashedCount > 0 || crashed(PLAYER)) {
+            running = false;
+        } else {
+            for (int i = 0; i < crashedCount; i++) {
+                removeSnake(crashedSnakes[i]);
+            }
+        }
+        return running ? 0 : EVENT_GAME_OVER;
+    }
+
+    // Jeden przebieg po głowach wszystkich węży z odczytem siatki zajętości (bez porównywania węży
+    // parami): wąż rozbił się, jeśli głowa wyszła poza planszę, trafiła na przeszkodę albo dzieli
+    // kafelek z innym segmentem dowolnego węża. Zderzenie czołowe rozbija oba węże, także wtedy, gdy
+    // węże zamieniły się miejscami (patrz swappedHeads). Wynikiem jest lista crashedSnakes i maska
+    // bitowa (bit 1 << numer węża) dla pierwszych 32 węży.
+    private int findCrashed() {
+        int mask = 0;
+        crashedCount = 0;
+        for (int s = 0; s < snakes.count(); s++) {
+            if (snakes.isEmpty(s)) continue;
+            int x = snakes.headX(s);
+            int y = snakes.headY(s);
+            if (!grid.inBounds(x, y) || grid.hasObstacle(x, y) || grid.segmentsAt(x, y) > 1 || swappedHeads(s)) {
+                crashedSnakes[crashedCount++] = s;
+                if (s < 32) {
+                    mask |= 1 << s;
+                }
+            }
+        }
+        return mask;
+    }
+
+    // Czy wąż zamienił się miejscami z innym wężem: jego nowa głowa stoi na starej głowie tamtego,
+    // a nowa głowa tamtego na jego starej głowie. Węże długości 1 zwalniają sobie przy tym nawzajem
+    // kafelki, więc siatka zajętości nie pokazuje zderzenia (dłuższe trafiają na szyję drugiego węża).
+    private boolean swappedHeads(int s) {
+        int previous = previousHeads[s];
+        if (previous < 0) return false;
+        int other = previousHeadOwner(snakes.head(s));
+        return other >= 0 && other != s && !snakes.isEmpty(other) && snakes.head(other) == previous;
+    }
+
+    // Zapamiętanie głów wszystkich węży przed ruchem w kroku (dla swappedHeads)
+    private void rememberHeads() {
+        Arrays.fill(previousHeadOwners, 0);
+        int mask = previousHeadOwners.length - 1;
+        for (int s = 0; s < snakes.count(); s++) {
+            int head = snakes.isEmpty(s) ? -1 : snakes.head(s);
+            previousHeads[s] = head;
+            if (head >= 0) {
+                int slot = headSlot(head);
+                while (previousHeadOwners[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                previousHeadOwners[slot] = s + 1;
+            }
+        }
+    }
+
+    // Poza krokiem (nowa gra, stan z klatki kluczowej) głowy sprzed ruchu nie są znane
+    private void forgetHeads() {
+        Arrays.fill(previousHeads, -1);
+        Arrays.fill(previousHeadOwners, 0);
+    }
+
+    // Numer węża, którego głowa przed ruchem była na kafelku tile, albo -1
+    private int previousHeadOwner(int tile) {
+        int mask = previousHeadOwners.length - 1;
+        for (int slot = headSlot(tile); previousHeadOwners[slot] != 0; slot = (slot + 1) & mask) {
+            int s = previousHeadOwners[slot] - 1;
+            if (previousHeads[s] == tile) return s;
+        }
+        return -1;
+    }
+
+    private int headSlot(int tile) {
+        int hash = tile * 0x9E3779B1;
+        return (hash ^ (hash >>> 16)) & (previousHeadOwners.length - 1);
+    }
+
+    private boolean crashed(int s) {
+        for (int i = 0; i < crashedCount; i++) {
+            if (crashedSnakes[i] == s) return true;
+        }
+        return false;
+    }
+
+    // Usunięcie rozbitego węża z planszy wraz ze wszystkimi segmentami
+    private void removeSnake(int s) {
+        while (!snakes.isEmpty(s)) {
+            removeTail(s);
+        }
+    }
+
+    // Zapis pełnego stanu gry jako klatki kluczowej nagrania (węże od głowy, owoce, przeszkody,
+    // wynik i stan generatora losowego)
+    void writeState(ReplayBuffer out) {
+        out.writeVarint(tick);
+        out.writeVarint(score);
+        out.writeByte(running ? 1 : 0);
+        out.writeByte(direction);
+        out.writeLong(random.getState());
+        for (int s = 0; s < snakes.count(); s++) {
+            writeBody(out, s);
+        }
+        // Pętle po indeksach jak w moveObstacles - zapis klatki kluczowej nie tworzy iteratorów
+        out.writeVarint(fruits.size());
+        for (int i = 0; i < fruits.size(); i++) {
+            Fruit fruit = fruits.get(i);
+            out.writeInt(SnakeBodies.pack(fruit.position.x, fruit.position.y));
+            out.writeByte(fruit.isApple ? 1 : 0);
+        }
+        out.writeVarint(obstacles.size());
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obstacle = obstacles.get(i);
+            out.writeInt(SnakeBodies.pack(obstacle.position.x, obstacle.position.y));
+            out.writeByte(obstacle.direction);
+        }
+    }
+
+    private void writeBody(ReplayBuffer out, int s) {
+        out.writeVarint(snakes.length(s));
+        for (int i = 0; i < snakes.length(s); i++) {
+            out.writeInt(snakes.get(s, i));
+        }
+    }
+
+    // Przywrócenie stanu zapisanego przez writeState, łącznie z siatką zajętości i indeksem pustych kafelków.
+    // storedSnakes to liczba zapisanych węży (starsze nagrania gry jednoosobowej mają dwa puste węże więcej).
+    void readState(DataInput in, int storedSnakes) throws IOException {
+        tick = Replay.readVarint(in);
+        score = (int) Replay.readVarint(in);
+        running = in.readBoolean();
+        direction = (char) in.readUnsignedByte();
+        random.setState(in.readLong());
+        crashed = 0;
+        crashedCount = 0;
+        grid.clear();
+        freeCells.reset();
+        dirtyCount = 0;
+        Arrays.fill(removedTails, -1);
+        snakes.clear();
+        for (int s = 0; s < storedSnakes; s++) {
+            readBody(in, s);
+        }
+        fruits = new ArrayList<>();
+        for (int i = (int) Replay.readVarint(in); i > 0; i--) {
+            int tile = in.readInt();
+            int x = SnakeBodies.unpackX(tile);
+            int y = SnakeBodies.unpackY(tile);
+            fruits.add(new Fruit(new Point(x, y), in.readBoolean()));
+            grid.setFruit(x, y, true);
+            refreshFree(x, y);
+        }
+        obstacles = new ArrayList<>();
+        for (int i = (int) Replay.readVarint(in); i > 0; i--) {
+            int tile = in.readInt();
+            int x = SnakeBodies.unpackX(tile);
+            int y = SnakeBodies.unpackY(tile);
+            obstacles.add(new Obstacle(new Point(x, y), (char) in.readUnsignedByte()));
+            grid.setObstacle(x, y);
+            refreshFree(x, y);
+        }
+        forgetHeads(); // zamiany miejsc z ostatniego kroku przed klatką nie da się już wykryć
+        if (!running) {
+            crashed = findCrashed();
+        }
+    }
+
+    private void readBody(DataInput in, int s) throws IOException {
+        int[] tiles = new int[(int) Replay.readVarint(in)];
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i] = in.readInt();
+        }
+        if (s >= snakes.count()) {
+            if (tiles.length > 0) {
+                throw new IOException("Corrupted keyframe: snake " + s + " does not exist in this game");
+            }
+            return;
+        }
+        for (int i = tiles.length - 1; i >= 0; i--) {
+            int x = SnakeBodies.unpackX(tiles[i]);
+            int y = SnakeBodies.unpackY(tiles[i]);
+            snakes.addHead(s, x, y);
+            grid.addSegment(x, y);
+            refreshFree(x, y);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Ciała wszystkich węży (gracz ma numer PLAYER)
+    public SnakeBodies getSnakes() {
+        return snakes;
+    }
+
+    public boolean isPlayWithComputer() {
+        return playWithComputer;
+    }
+
+    public boolean isArena() {
+        return arena;
+    }
+
+    // Liczba węży komputera (na arenie łącznie z usuniętymi)
+    public int getEnemyCount() {
+        return snakes.count() - 1;
+    }
+
+    public List<Fruit> getFruits() {
+        return fruits;
+    }
+
+    public List<Obstacle> getObstacles() {
+        return obstacles;
+    }
+
+    public OccupancyGrid getGrid() {
+        return grid;
+    }
+
+    public char getDirection() {
+        return direction;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    // Maska węży rozbitych w ostatnim kroku (bit 1 << numer węża, tylko pierwsze 32 węże)
+    public int getCrashed() {
+        return crashed;
+    }
+
+    // Liczba węży rozbitych w ostatnim kroku i ich numery
+    public int getCrashedCount() {
+        return crashedCount;
+    }
+
+    public int getCrashedSnake(int i) {
+        return crashedSnakes[i];
+    }
+
+    // Zapakowany kafelek ogona zdjętego z węża s w ostatnim kroku albo -1, gdy wąż urósł
+    // (do płynnego rysowania ruchu między krokami)
+    public int getRemovedTail(int s) {
+        return removedTails[s];
+    }
+
+    // Liczba kafelków zmienionych w ostatnim kroku
+    public int getDirtyCount() {
+        return dirtyCount;
+    }
+
+    // Zapakowany (jak w SnakeBodies) i-ty kafelek zmieniony w ostatnim kroku
+    public int getDirtyTile(int i) {
+        return dirtyTiles[i];
+    }
+
+    // Klasa wewnętrzna reprezentująca owoc
+    public static class Fruit {
+        Point position;
+        boolean isApple;
+
+        Fruit(Point position, boolean isApple) {
+            this.position = position;
+            this.isApple = isApple;
+        }
+    }
+
+    // Klasa wewnętrzna reprezentująca przeszkodę
+    public static class Obstacle {
+        Point position;
+        char direction;
+
+        Obstacle(Point position, char direction) {
+            this.position = position;
+            this.direction = direction;
+        }
+    }
+}
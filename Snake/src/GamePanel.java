@@ -0,0 +1,278 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.util.Random;
+
+// Wspólny panel gry: sterowanie z klawiatury, pętla kroków na wątku planisty, nagrywanie gry, przekazywanie migawek do
+// rysowania (paintComponent albo aktywne rysowanie), pomiary i ekran końca gry. Klasy trybów gry
+// podają tylko silnik, tempo, plik nagrania i tabelę wyników.
+public abstract class GamePanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private static final int TILE_SIZE = BoardPainter.TILE_SIZE;
+    private static final int BOARD_WIDTH = BoardPainter.VIEW_TILES_X * TILE_SIZE;
+    private static final int BOARD_HEIGHT = BoardPainter.VIEW_TILES_Y * TILE_SIZE;
+    private static final Font GAME_OVER_FONT = new Font("Helvetica", Font.BOLD, 50);
+    private static final String GAME_OVER_MESSAGE = "Game Over";
+
+    protected final GameEngine engine;
+    private volatile TickScheduler scheduler; // odstęp kroków czyta też wątek aktywnego rysowania
+    private final BoardPainter painter = new BoardPainter(BoardPainter.VIEW_TILES_X, BoardPainter.VIEW_TILES_Y, TILE_SIZE);
+    // Odstęp między krokami w zależności od wyniku (można zmienić właściwością snake.speed)
+    private final SpeedCurve speed;
+    private final String replayFile;
+    private final MainMenu.Mode mode; // null - gra nie trafia do wyników
+    private JButton restartButton;
+    private JButton menuButton;
+    private JPanel buttonPanel;
+    private long startMillis;
+    private final Random seeds = new Random();
+    private final ReplayRecorder recorder = new ReplayRecorder();
+    private final JFrame parentFrame;
+    // Migawki stanu po kroku - przy aktywnym rysowaniu czyta je inny wątek niż EDT
+    private final SnapshotExchange snapshots = new SnapshotExchange();
+    // Naciśnięte kierunki, po jednym odbierane przez wątek kroku na początku kroku
+    private final InputQueue input = new InputQueue();
+    // Pomiary czasu kroku i rysowania z nakładką (F3 włącza i wyłącza, F4 zapisuje CSV), null - wyłączone
+    private volatile TickTelemetry telemetry;
+    private final ActiveRenderer renderer; // null - rysowanie przez paintComponent
+
+    // Konstruktor panelu; gra rusza od razu
+    protected GamePanel(JFrame parentFrame, GameEngine engine, SpeedCurve speed, String replayFile, MainMenu.Mode mode) {
+        this.parentFrame = parentFrame;
+        this.engine = engine;
+        this.speed = speed;
+        this.replayFile = replayFile;
+        this.mode = mode;
+        setPreferredSize(new Dimension(BOARD_WIDTH, BOARD_HEIGHT));
+        setBackground(Color.BLACK);
+        setFocusable(true);
+        setLayout(null);
+        if (ActiveRenderer.isRequested()) {
+            renderer = new ActiveRenderer(this::renderFrame);
+            renderer.setBounds(0, 0, BOARD_WIDTH, BOARD_HEIGHT);
+            add(renderer);
+        } else {
+            renderer = null;
+        }
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                int key = e.getKeyCode();
+                if (key == KeyEvent.VK_LEFT) {
+                    input.offer('L');
+                }
+                if (key == KeyEvent.VK_RIGHT) {
+                    input.offer('R');
+                }
+                if (key == KeyEvent.VK_UP) {
+                    input.offer('U');
+                }
+                if (key == KeyEvent.VK_DOWN) {
+                    input.offer('D');
+                }
+                if (key == KeyEvent.VK_F3) {
+                    toggleTelemetry();
+                }
+                if (key == KeyEvent.VK_F4 && telemetry != null) {
+                    telemetry.saveCsvInBackground("telemetry.csv");
+                }
+            }
+        });
+        initRestartButton();
+        initMenuButton();
+        initButtonPanel();
+        initGame();
+    }
+
+    // Inicjalizacja przycisku restartu
+    private void initRestartButton() {
+        restartButton = new JButton("Restart");
+        restartButton.setFocusable(false);
+        restartButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                initGame();
+            }
+        });
+    }
+
+    // Inicjalizacja przycisku menu
+    private void initMenuButton() {
+        menuButton = new JButton("Menu");
+        menuButton.setFocusable(false);
+        menuButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                scheduler.stop();
+                if (renderer != null) {
+                    renderer.stop();
+                }
+                engine.setDecisionThreads(1); // zwolnienie wątków fazy decyzji areny
+                parentFrame.setContentPane(new MainMenu(parentFrame));
+                parentFrame.revalidate();
+            }
+        });
+    }
+
+    // Panel z przyciskami końca gry - tworzony raz i tylko pokazywany po przegranej
+    private void initButtonPanel() {
+        buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.setBounds((BOARD_WIDTH - 200) / 2, (BOARD_HEIGHT - 50) / 2 + 60, 200, 50);
+        buttonPanel.setOpaque(false);
+        buttonPanel.add(restartButton);
+        buttonPanel.add(menuButton);
+        buttonPanel.setVisible(false);
+        add(buttonPanel);
+    }
+
+    // Inicjalizacja gry
+    private void initGame() {
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+        input.clear(); // naciśnięcia z poprzedniej gry
+        buttonPanel.setVisible(false);
+        startMillis = System.currentTimeMillis();
+        long seed = seeds.nextLong();
+        engine.reset(seed); // każda gra ma własne ziarno, żeby dało się ją odtworzyć z nagrania
+        recorder.start(engine, seed);
+        publishSnapshot();
+        painter.markAll();
+        repaint();
+        // Jeden planista wykonuje wszystkie fazy kroku w stałej kolejności i przyspiesza według wyniku
+        scheduler = new TickScheduler(this::tick, speed, engine::getScore);
+        scheduler.setTelemetry(telemetry);
+        scheduler.start();
+        if (renderer != null) {
+            renderer.setVisible(true);
+            renderer.start();
+        }
+    }
+
+    // Włączenie pomiarów od zera albo ich wyłączenie (wtedy kosztują tylko sprawdzenie null w każdej fazie)
+    private void toggleTelemetry() {
+        telemetry = telemetry == null ? new TickTelemetry() : null;
+        engine.setTelemetry(telemetry);
+        scheduler.setTelemetry(telemetry);
+        if (renderer != null) {
+            renderer.setTelemetry(telemetry);
+        }
+        repaint();
+    }
+
+    // Jeden krok gry na wątku planisty: ruch węży, przeszkód i sprawdzenie kolizji w kolejności
+    // ustalonej przez silnik
+    private void tick() {
+        TickTelemetry t = telemetry;
+        long start = t == null ? 0 : System.nanoTime();
+        int events = engine.step(input.take(engine.getDirection(), t));
+        recorder.record(engine);
+        publishSnapshot();
+        if (t != null) {
+            t.record(TickTelemetry.TICK, System.nanoTime() - start);
+            repaint(0, TILE_SIZE, TickTelemetry.OVERLAY_WIDTH, TickTelemetry.OVERLAY_HEIGHT);
+        }
+        if ((events & GameEngine.EVENT_FRUIT_EATEN) != 0) {
+            repaint(0, 0, 150, TILE_SIZE); // Obszar wyniku
+        }
+        if (!engine.isRunning()) {
+            // Koniec gry: planista zatrzymuje się po tym kroku, a przejście wykonuje się raz na EDT
+            scheduler.stop();
+            int score = engine.getScore();
+            recorder.finish(score);
+            recorder.saveInBackground(replayFile);
+            int length = engine.getSnakes().length(GameEngine.PLAYER);
+            long durationMillis = System.currentTimeMillis() - startMillis;
+            SwingUtilities.invokeLater(() -> gameOver(score, length, durationMillis));
+            return;
+        }
+        // Odświeżanie tylko kafelków zmienionych w tym kroku
+        if (renderer != null) {
+            painter.markDirty(engine); // klatki rysuje wątek aktywnego rysowania
+        } else {
+            painter.invalidate(engine, this);
+        }
+    }
+
+    // Przekazanie stanu po kroku do rysowania (bez blokad, przez potrójny bufor migawek)
+    private void publishSnapshot() {
+        TickTelemetry t = telemetry;
+        long start = t == null ? 0 : System.nanoTime();
+        snapshots.back().capture(engine);
+        snapshots.publish();
+        if (t != null) {
+            t.record(TickTelemetry.PUBLISH, System.nanoTime() - start);
+        }
+    }
+
+    // Rysowanie komponentów gry
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (renderer != null && renderer.isVisible()) {
+            super.paintComponent(g); // planszę rysuje wątek aktywnego rysowania
+            return;
+        }
+        TickTelemetry t = telemetry;
+        long start = t == null ? 0 : System.nanoTime();
+        super.paintComponent(g);
+        painter.collectDirty(); // przed pobraniem migawki, patrz BoardPainter.collectDirty
+        FrameSnapshot frame = snapshots.acquire();
+        if (frame.isRunning()) {
+            painter.paint(g, frame, this);
+            painter.paintScore(g, frame.getScore());
+        } else {
+            paintGameOver(g);
+        }
+        if (t != null) {
+            t.record(TickTelemetry.FRAME, System.nanoTime() - start);
+            t.drawOverlay(g, 0, TILE_SIZE);
+        }
+    }
+
+    // Klatka aktywnego rysowania (na wątku rysującym): plansza z ruchem węży interpolowanym między
+    // krokami, wynik i nakładka pomiarów. Klatki powstają częściej niż kroki, więc głowy wsuwają się
+    // na nowe pola płynnie; paintComponent rysuje tylko stan po kroku.
+    private FrameSnapshot renderFrame(Graphics g) {
+        painter.collectDirty(); // przed pobraniem migawki, patrz BoardPainter.collectDirty
+        FrameSnapshot frame = snapshots.acquire();
+        painter.paint(g, frame, renderer);
+        painter.paintMotion(g, frame, (System.nanoTime() - frame.getCapturedNanos()) / (double) scheduler.getPeriodNanos());
+        painter.paintScore(g, frame.getScore());
+        TickTelemetry t = telemetry;
+        if (t != null) {
+            t.drawOverlay(g, 0, TILE_SIZE);
+        }
+        return frame;
+    }
+
+    // Przejście do stanu końca gry - wykonywane raz, na wątku EDT: pokazanie przycisków
+    // i zapisanie wyniku oraz gry w tabeli wyników w tle (bez dostępu do pliku na EDT)
+    private void gameOver(int score, int length, long durationMillis) {
+        if (renderer != null) {
+            // Płótno przykryłoby przyciski, a komunikat końca gry rysuje paintComponent
+            renderer.stop();
+            renderer.setVisible(false);
+        }
+        buttonPanel.setVisible(true);
+        repaint();
+        if (mode != null) {
+            Highscore.recordGame(mode, score, length, durationMillis);
+        }
+    }
+
+    // Rysowanie komunikatu końca gry (bez efektów ubocznych)
+    private void paintGameOver(Graphics g) {
+        FontMetrics metrics = g.getFontMetrics(GAME_OVER_FONT);
+        g.setColor(Color.RED);
+        g.setFont(GAME_OVER_FONT);
+        g.drawString(GAME_OVER_MESSAGE, (BOARD_WIDTH - metrics.stringWidth(GAME_OVER_MESSAGE)) / 2, BOARD_HEIGHT / 2);
+    }
+
+    public boolean isRunning() {
+        return engine.isRunning();
+    }
+}
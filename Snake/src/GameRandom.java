@@ -0,0 +1,44 @@
+import java.util.Random;
+
+// Generator losowy gry z odczytywalnym stanem. Liczy dokładnie ten sam ciąg co java.util.Random
+// (ten sam 48-bitowy generator liniowy), ale jego stan można zapisać w klatce kluczowej nagrania
+// i odtworzyć, żeby gra odtworzona od środka losowała dalej to samo co oryginał.
+public class GameRandom extends Random {
+    private static final long serialVersionUID = 1L;
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state;
+
+    public GameRandom() {
+        super();
+    }
+
+    public GameRandom(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    // Wewnętrzny stan generatora (do zapisania w klatce kluczowej)
+    public long getState() {
+        return state;
+    }
+
+    // Przywrócenie stanu odczytanego przez getState()
+    public void setState(long state) {
+        this.state = state & MASK;
+    }
+}
@@ -1,6 +1,139 @@
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+// Najlepsze wyniki trzymane w pamięci. Pliki są czytane raz, w load(), a nowe rekordy zapisywane
+// w tle: kilka rekordów zgłoszonych przed zapisem daje jeden zapis, a plik podmieniany jest
+// przez zapis do pliku tymczasowego i zmianę nazwy, więc awaria nie zostawi uciętego pliku.
 public class Highscore {
+    // Najdłuższe czekanie przy zamykaniu programu na zapisy zgłoszone wcześniej
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    // Wczytane w load(); przed wczytaniem null
+    private static Slot singlePlayer;
+    private static Slot playWithComputer;
+    private static Leaderboard leaderboard; // null także wtedy, gdy nie udało się otworzyć pliku
+
+    // Wynik jednego trybu gry: wartość w pamięci i jej plik
+    private static class Slot {
+        private final String filename;
+        private final AtomicInteger best;
+        private final AtomicBoolean flushPending = new AtomicBoolean();
+        private int written;
+
+        Slot(String filename) {
+            this.filename = filename;
+            int score = 0;
+            try {
+                score = readHighscore(filename);
+            } catch (IOException | NumberFormatException e) {
+                e.printStackTrace();
+            }
+            this.best = new AtomicInteger(score);
+            this.written = score;
+        }
+
+        // Zgłoszenie wyniku - zapis jest planowany tylko, jeśli to nowy rekord i zapis jeszcze nie czeka
+        void submit(int score) {
+            if (score <= best.get()) return;
+            best.accumulateAndGet(score, Math::max);
+            if (flushPending.compareAndSet(false, true)) {
+                if (!BackgroundWriter.execute(this::flush)) {
+                    flush(); // program się zamyka
+                }
+            }
+        }
+
+        // Zapis aktualnego rekordu, jeśli różni się od zapisanego w pliku
+        synchronized void flush() {
+            flushPending.set(false);
+            int score = best.get();
+            if (score == written) return;
+            try {
+                writeHighscore(filename, score);
+                written = score;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Wczytanie rekordów i otwarcie tabeli wyników (tylko przy pierwszym wywołaniu). Main woła je przed
+    // pokazaniem menu; pozostałe metody wczytują wyniki same, jeśli nikt tego wcześniej nie zrobił.
+    public static synchronized void load() {
+        if (singlePlayer != null) return;
+        singlePlayer = new Slot("single_player_highscore.txt");
+        playWithComputer = new Slot("play_with_computer_highscore.txt");
+        leaderboard = openLeaderboard("leaderboard.log");
+        // Dopisanie zaległych rekordów przy zamykaniu programu (wątek zapisu jest demonem)
+        Runtime.getRuntime().addShutdownHook(new Thread(Highscore::shutdown, "highscore-shutdown"));
+    }
+
+    // Zapis rekordów i zamknięcie tabeli jako ostatnie zadanie wątku zapisu - po wszystkich zgłoszonych
+    // wcześniej, więc żaden zapis nie trwa równolegle z zamykaniem plików. Wątek zapisu jest zamykany
+    // tylko tutaj, więc zadanie zawsze zostanie przyjęte.
+    private static void shutdown() {
+        BackgroundWriter.execute(Highscore::closeFiles);
+        BackgroundWriter.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+    }
+
+    private static void closeFiles() {
+        singlePlayer.flush();
+        playWithComputer.flush();
+        if (leaderboard != null) {
+            try {
+                leaderboard.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Tabela wyników albo null, jeśli nie udało się otworzyć jej pliku (gra działa wtedy bez niej)
+    private static Leaderboard openLeaderboard(String filename) {
+        try {
+            return Leaderboard.open(filename);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Tabela wszystkich rozegranych gier (null, jeśli jest niedostępna)
+    public static Leaderboard getLeaderboard() {
+        load();
+        return leaderboard;
+    }
+
+    // Zgłoszenie zakończonej gry: rekord trybu i wpis w tabeli wyników, oba zapisywane w tle
+    public static void recordGame(MainMenu.Mode mode, int score, int length, long durationMillis) {
+        load();
+        if (mode == MainMenu.Mode.SINGLE_PLAYER) {
+            singlePlayer.submit(score);
+        } else if (mode == MainMenu.Mode.PLAY_WITH_COMPUTER) {
+            playWithComputer.submit(score);
+        }
+        Leaderboard board = leaderboard;
+        if (board == null) return;
+        Leaderboard.Entry entry = new Leaderboard.Entry(mode, score, length, durationMillis, System.currentTimeMillis());
+        // Gdy program się zamyka, zadanie jest odrzucane i gra nie trafi do tabeli
+        BackgroundWriter.execute(() -> {
+            try {
+                board.record(entry);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
 
     // Odczytuje wynik z pliku o podanej nazwie
     public static int readHighscore(String filename) throws IOException {
@@ -8,7 +141,7 @@ public class Highscore {
         try {
             reader = new BufferedReader(new FileReader(filename));
             String line = reader.readLine();
-            return Integer.parseInt(line.trim());
+            return line == null ? 0 : Integer.parseInt(line.trim());
         } catch (FileNotFoundException e) {
             // Jeśli plik nie istnieje, zwracamy 0
             return 0;
@@ -19,36 +152,49 @@ public class Highscore {
         }
     }
 
-    // Zapisuje wynik do pliku o podanej nazwie.
+    // Zapisuje wynik do pliku o podanej nazwie: najpierw do pliku tymczasowego obok,
+    // potem podmiana nazwy, żeby plik wyniku zawsze zawierał pełną wartość.
     public static void writeHighscore(String filename, int score) throws IOException {
-        BufferedWriter writer = null;
+        Path target = Paths.get(filename).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(String.valueOf(score).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        replaceFile(temp, target);
+    }
+
+    // Podmiana pliku docelowego gotowym plikiem tymczasowym (atomowo, jeśli system plików pozwala)
+    static void replaceFile(Path temp, Path target) throws IOException {
         try {
-            writer = new BufferedWriter(new FileWriter(filename));
-            writer.write(String.valueOf(score));
-        } finally {
-            if (writer != null) {
-                writer.close();
-            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
-    // Odczytuje wynik dla trybu gry jednoosobowej z domyślnego pliku.
-    public static int readSinglePlayerHighscore() throws IOException {
-        return readHighscore("single_player_highscore.txt");
+    // Najlepszy wynik gry jednoosobowej (z pamięci).
+    public static int getSinglePlayerHighscore() {
+        load();
+        return singlePlayer.best.get();
     }
 
-    // Zapisuje wynik dla trybu gry jednoosobowej do domyślnego pliku.
-    public static void writeSinglePlayerHighscore(int score) throws IOException {
-        writeHighscore("single_player_highscore.txt", score);
+    // Zgłasza wynik gry jednoosobowej; nowy rekord zostanie zapisany w tle.
+    public static void submitSinglePlayerHighscore(int score) {
+        load();
+        singlePlayer.submit(score);
     }
 
-    // Odczytuje wynik dla trybu gry z komputerem z domyślnego pliku.
-    public static int readPlayWithComputerHighscore() throws IOException {
-        return readHighscore("play_with_computer_highscore.txt");
+    // Najlepszy wynik gry z komputerem (z pamięci).
+    public static int getPlayWithComputerHighscore() {
+        load();
+        return playWithComputer.best.get();
     }
 
-    // Zapisuje wynik dla trybu gry z komputerem do domyślnego pliku.
-    public static void writePlayWithComputerHighscore(int score) throws IOException {
-        writeHighscore("play_with_computer_highscore.txt", score);
+    // Zgłasza wynik gry z komputerem; nowy rekord zostanie zapisany w tle.
+    public static void submitPlayWithComputerHighscore(int score) {
+        load();
+        playWithComputer.submit(score);
     }
 }
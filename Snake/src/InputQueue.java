@@ -0,0 +1,55 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// Kolejka naciśniętych kierunków między EDT (zapis) a wątkiem kroku (odczyt), bez blokad.
+// Każdy krok stosuje co najwyżej jeden kierunek, więc dwa szybkie naciśnięcia w czasie jednego kroku
+// dają dwa kolejne skręty zamiast nadpisania pierwszego. Kierunki, które nic by nie zmieniły albo
+// zawracałyby węża względem ostatnio zastosowanego kierunku, są pomijane przy odczycie. Każdy wpis ma
+// czas naciśnięcia, z którego liczone jest opóźnienie od klawisza do kroku wykonującego skręt.
+public class InputQueue {
+    // Najwięcej oczekujących naciśnięć (potęga dwójki); kolejne przepadają, żeby wąż nie wykonywał
+    // skrętów wciśniętych dawno temu
+    private static final int CAPACITY = 4;
+
+    private final char[] directions = new char[CAPACITY];
+    private final long[] pressedNanos = new long[CAPACITY];
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong taken = new AtomicLong();
+
+    // Dodanie naciśniętego kierunku (na EDT); false, gdy kolejka jest pełna i naciśnięcie przepadło
+    public boolean offer(char direction) {
+        long position = queued.get();
+        if (position - taken.get() >= CAPACITY) {
+            return false;
+        }
+        int i = (int) position & (CAPACITY - 1);
+        directions[i] = direction;
+        pressedNanos[i] = System.nanoTime();
+        queued.lazySet(position + 1);
+        return true;
+    }
+
+    // Kierunek do zastosowania w tym kroku (na wątku kroku), 0 - brak. Wpisy, które nie są skrętem
+    // względem current, są zdejmowane bez zastosowania. Opóźnienie zastosowanego wpisu trafia do telemetry.
+    public char take(char current, TickTelemetry telemetry) {
+        long end = queued.get();
+        long position = taken.get();
+        char direction = 0;
+        while (position < end && direction == 0) {
+            int i = (int) position & (CAPACITY - 1);
+            if (GameEngine.isTurn(current, directions[i])) {
+                direction = directions[i];
+                if (telemetry != null) {
+                    telemetry.record(TickTelemetry.INPUT_LATENCY, System.nanoTime() - pressedNanos[i]);
+                }
+            }
+            position++;
+        }
+        taken.lazySet(position);
+        return direction;
+    }
+
+    // Porzucenie oczekujących naciśnięć przed nową grą; wołane, gdy wątek kroku jest zatrzymany
+    public void clear() {
+        taken.set(queued.get());
+    }
+}
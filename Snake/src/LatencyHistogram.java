@@ -0,0 +1,72 @@
+// Histogram czasów w nanosekundach o stałej względnej dokładności (w stylu HdrHistogram): każdy
+// przedział między kolejnymi potęgami dwójki jest dzielony na 32 równe części, więc odczytany
+// percentyl różni się od dokładnego najwyżej o około 3%. Zapis to kilka operacji bitowych
+// i zwiększenie licznika, bez tworzenia obiektów. Histogram ma jednego piszącego; odczyt z innego
+// wątku (np. do nakładki) może nie uwzględniać kilku ostatnich zapisów.
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_SHIFT = 35;
+    // Większe wartości (ponad pół godziny) są zapisywane jako ta
+    private static final long MAX_VALUE = (1L << (MAX_SHIFT + SUB_BITS + 1)) - 1;
+
+    private final long[] counts = new long[(MAX_SHIFT + 2) * SUB_COUNT];
+    private long count;
+    private long sum;
+    private long max;
+
+    // Zapisanie jednego pomiaru (ujemne są liczone jako 0)
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts[index(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    // Wartość, której nie przekracza podany procent pomiarów (górna granica przedziału, nie więcej niż max)
+    public long valueAtPercentile(double percentile) {
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, lowestValue(i + 1) - 1);
+            }
+        }
+        return max;
+    }
+
+    // Numer przedziału: małe wartości mają własne przedziały, większe - 32 na każdą potęgę dwójki
+    static int index(long value) {
+        if (value < 2 * SUB_COUNT) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return SUB_COUNT * shift + (int) (value >>> shift);
+    }
+
+    // Najmniejsza wartość należąca do przedziału
+    static long lowestValue(int index) {
+        if (index < 2 * SUB_COUNT) return index;
+        int shift = index / SUB_COUNT - 1;
+        return (long) (index - SUB_COUNT * shift) << shift;
+    }
+}
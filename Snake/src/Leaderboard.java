@@ -0,0 +1,334 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Tabela wyników wszystkich rozegranych gier.
+// Każda gra jest dopisywana jako rekord stałej długości na koniec pliku dziennika (nic nie jest
+// nadpisywane), a w pamięci trzymany jest tylko mały indeks: najlepsze TOP_SIZE gier i histogram
+// wyników dla każdego trybu. Rekord trafia do dziennika od razu przy zapisie gry, więc awaria
+// programu nie gubi rozegranych gier. Indeks zapisywany jest obok dziennika co pewien czas, razem
+// z długością dziennika, którą obejmuje, więc przy otwarciu wystarczy doczytać tylko rekordy
+// dopisane po jego zapisie.
+// Żadna operacja nie wczytuje całego dziennika do pamięci.
+public class Leaderboard implements Closeable {
+    public static final int TOP_SIZE = 100;
+
+    // Wyniki od HISTOGRAM_LIMIT w górę trafiają do ostatniego przedziału histogramu
+    private static final int HISTOGRAM_LIMIT = 1 << 16;
+
+    private static final int LOG_MAGIC = 0x534E4B4C;   // "SNKL"
+    private static final int INDEX_MAGIC = 0x534E4B49; // "SNKI"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    // tryb (1) + wynik (4) + długość węża (4) + czas gry w ms (8) + znacznik czasu w ms (8)
+    private static final int RECORD_SIZE = 25;
+    // Co tyle dopisanych gier indeks jest zapisywany ponownie
+    private static final int INDEX_INTERVAL = 4096;
+
+    private static final MainMenu.Mode[] MODES = MainMenu.Mode.values();
+
+    private final Path logPath;
+    private final Path indexPath;
+    private final FileChannel log;
+    private final ByteBuffer pending = ByteBuffer.allocate(RECORD_SIZE);
+    private final ModeIndex[] modes = new ModeIndex[MODES.length];
+    private long logLength;
+    private int sinceIndex;
+
+    // Jedna zakończona gra
+    public static final class Entry {
+        private final MainMenu.Mode mode;
+        private final int score;
+        private final int length;
+        private final long durationMillis;
+        private final long timestamp;
+
+        public Entry(MainMenu.Mode mode, int score, int length, long durationMillis, long timestamp) {
+            this.mode = mode;
+            this.score = score;
+            this.length = length;
+            this.durationMillis = durationMillis;
+            this.timestamp = timestamp;
+        }
+
+        public MainMenu.Mode getMode() {
+            return mode;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        // Lepszy wynik wyżej, przy remisie wcześniejsza gra
+        boolean ranksAbove(Entry other) {
+            return score != other.score ? score > other.score : timestamp < other.timestamp;
+        }
+
+        void writeTo(ByteBuffer buffer) {
+            buffer.put((byte) mode.ordinal());
+            buffer.putInt(score);
+            buffer.putInt(length);
+            buffer.putLong(durationMillis);
+            buffer.putLong(timestamp);
+        }
+
+        static Entry readFrom(ByteBuffer buffer) throws IOException {
+            int mode = buffer.get();
+            if (mode < 0 || mode >= MODES.length) {
+                throw new IOException("Invalid leaderboard record");
+            }
+            return new Entry(MODES[mode], buffer.getInt(), buffer.getInt(), buffer.getLong(), buffer.getLong());
+        }
+    }
+
+    // Indeks jednego trybu: najlepsze gry posortowane malejąco i histogram wszystkich wyników
+    private static final class ModeIndex {
+        private final List<Entry> top = new ArrayList<>(TOP_SIZE + 1);
+        private long[] histogram = new long[64];
+        private long count;
+
+        void add(Entry entry) {
+            count++;
+            int bucket = Math.min(Math.max(entry.score, 0), HISTOGRAM_LIMIT - 1);
+            if (bucket >= histogram.length) {
+                histogram = Arrays.copyOf(histogram, Math.min(HISTOGRAM_LIMIT, Integer.highestOneBit(bucket) << 1));
+            }
+            histogram[bucket]++;
+
+            if (top.size() == TOP_SIZE && !entry.ranksAbove(top.get(TOP_SIZE - 1))) {
+                return;
+            }
+            int i = top.size();
+            while (i > 0 && entry.ranksAbove(top.get(i - 1))) {
+                i--;
+            }
+            top.add(i, entry);
+            if (top.size() > TOP_SIZE) {
+                top.remove(TOP_SIZE);
+            }
+        }
+    }
+
+    private Leaderboard(Path logPath, Path indexPath) throws IOException {
+        this.logPath = logPath;
+        this.indexPath = indexPath;
+        for (int i = 0; i < modes.length; i++) {
+            modes[i] = new ModeIndex();
+        }
+        this.log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            openLog();
+        } catch (IOException e) {
+            log.close();
+            throw e;
+        }
+    }
+
+    // Otwarcie (lub utworzenie) tabeli wyników zapisanej w pliku dziennika o podanej nazwie
+    public static Leaderboard open(String filename) throws IOException {
+        Path logPath = new File(filename).toPath().toAbsolutePath();
+        return new Leaderboard(logPath, logPath.resolveSibling(logPath.getFileName() + ".idx"));
+    }
+
+    // Sprawdzenie nagłówka dziennika, odcięcie niepełnego ostatniego rekordu (przerwany zapis)
+    // i odbudowanie indeksu: z pliku indeksu, jeśli jest aktualny, plus rekordy dopisane później
+    private void openLog() throws IOException {
+        long size = log.size();
+        if (size < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(LOG_MAGIC).putInt(VERSION);
+            header.flip();
+            log.truncate(0);
+            log.write(header, 0);
+            size = HEADER_SIZE;
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            log.read(header, 0);
+            header.flip();
+            if (header.getInt() != LOG_MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a leaderboard log: " + logPath);
+            }
+        }
+        logLength = size - (size - HEADER_SIZE) % RECORD_SIZE;
+        if (logLength != size) {
+            log.truncate(logLength);
+        }
+
+        long indexed = readIndex();
+        scan(indexed);
+        log.position(logLength);
+    }
+
+    // Wczytanie zapisanego indeksu; zwraca długość dziennika, którą obejmuje (HEADER_SIZE, gdy go brak)
+    private long readIndex() {
+        if (!Files.exists(indexPath)) {
+            return HEADER_SIZE;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != VERSION) {
+                return HEADER_SIZE;
+            }
+            long covered = in.readLong();
+            if (covered > logLength || in.readInt() != modes.length) {
+                return HEADER_SIZE;
+            }
+            ModeIndex[] loaded = new ModeIndex[modes.length];
+            byte[] record = new byte[RECORD_SIZE];
+            for (int m = 0; m < loaded.length; m++) {
+                ModeIndex index = new ModeIndex();
+                index.count = in.readLong();
+                index.histogram = new long[in.readInt()];
+                for (int i = 0; i < index.histogram.length; i++) {
+                    index.histogram[i] = in.readLong();
+                }
+                int topSize = in.readInt();
+                for (int i = 0; i < topSize; i++) {
+                    in.readFully(record);
+                    index.top.add(Entry.readFrom(ByteBuffer.wrap(record)));
+                }
+                loaded[m] = index;
+            }
+            System.arraycopy(loaded, 0, modes, 0, modes.length);
+            return covered;
+        } catch (IOException | RuntimeException e) {
+            // Uszkodzony indeks - zostanie odbudowany z dziennika
+            for (int i = 0; i < modes.length; i++) {
+                modes[i] = new ModeIndex();
+            }
+            return HEADER_SIZE;
+        }
+    }
+
+    // Dodanie do indeksu rekordów dziennika od pozycji from, czytanych kawałkami
+    private void scan(long from) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(RECORD_SIZE * 4096);
+        long position = from;
+        while (position < logLength) {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), logLength - position));
+            while (chunk.hasRemaining()) {
+                if (log.read(chunk, position + chunk.position()) < 0) {
+                    throw new EOFException("Leaderboard log truncated: " + logPath);
+                }
+            }
+            chunk.flip();
+            while (chunk.remaining() >= RECORD_SIZE) {
+                Entry entry = Entry.readFrom(chunk);
+                modes[entry.mode.ordinal()].add(entry);
+            }
+            position += chunk.limit();
+        }
+        sinceIndex = position == from ? 0 : INDEX_INTERVAL; // po doczytaniu zapisz świeży indeks przy flush
+    }
+
+    // Dopisanie zakończonej gry na koniec dziennika (bez fsync - ten robi flush)
+    public synchronized void record(Entry entry) throws IOException {
+        entry.writeTo(pending);
+        writePending();
+        modes[entry.mode.ordinal()].add(entry);
+        if (++sinceIndex >= INDEX_INTERVAL) {
+            flush();
+        }
+    }
+
+    // Wymuszenie zapisu dziennika na dysk i odświeżenie pliku indeksu
+    public synchronized void flush() throws IOException {
+        writePending();
+        log.force(false);
+        if (sinceIndex > 0) {
+            writeIndex();
+            sinceIndex = 0;
+        }
+    }
+
+    private void writePending() throws IOException {
+        pending.flip();
+        while (pending.hasRemaining()) {
+            logLength += log.write(pending);
+        }
+        pending.clear();
+    }
+
+    // Indeks zapisywany do pliku tymczasowego i podmieniany, tak jak pliki rekordów
+    private void writeIndex() throws IOException {
+        Path temp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(logLength);
+            out.writeInt(modes.length);
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            for (ModeIndex index : modes) {
+                out.writeLong(index.count);
+                out.writeInt(index.histogram.length);
+                for (long bucket : index.histogram) {
+                    out.writeLong(bucket);
+                }
+                out.writeInt(index.top.size());
+                for (Entry entry : index.top) {
+                    record.clear();
+                    entry.writeTo(record);
+                    out.write(record.array());
+                }
+            }
+        }
+        Highscore.replaceFile(temp, indexPath);
+    }
+
+    // Liczba gier zapisanych w danym trybie
+    public synchronized long count(MainMenu.Mode mode) {
+        return modes[mode.ordinal()].count;
+    }
+
+    // k najlepszych gier danego trybu (k nie większe niż TOP_SIZE), od najlepszej
+    public synchronized List<Entry> top(MainMenu.Mode mode, int k) {
+        List<Entry> top = modes[mode.ordinal()].top;
+        return Collections.unmodifiableList(new ArrayList<>(top.subList(0, Math.min(k, top.size()))));
+    }
+
+    // Wynik, którego nie przekroczył podany odsetek gier danego trybu (percentile od 0 do 100),
+    // albo 0, gdy nie ma jeszcze żadnej gry
+    public synchronized int percentile(MainMenu.Mode mode, double percentile) {
+        ModeIndex index = modes[mode.ordinal()];
+        if (index.count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * index.count));
+        long seen = 0;
+        for (int score = 0; score < index.histogram.length; score++) {
+            seen += index.histogram[score];
+            if (seen >= rank) {
+                return score;
+            }
+        }
+        return index.histogram.length - 1;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            log.close();
+        }
+    }
+}
@@ -2,7 +2,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.IOException;
 
 public class MainMenu extends JPanel {
     // Tryby gry
@@ -88,17 +87,13 @@ public class MainMenu extends JPanel {
         }
     }
 
-    // Metoda do wyświetlania wyników
+    // Metoda do wyświetlania wyników (z pamięci podręcznej, bez czytania plików na EDT)
     private void showHighscore() {
-        try {
-            int singlePlayerHighscore = Highscore.readSinglePlayerHighscore();
-            int playWithComputerHighscore = Highscore.readPlayWithComputerHighscore();
-            String message = String.format("Single Player:    %d%nwith Computer:  %d",
-                    singlePlayerHighscore, playWithComputerHighscore);
-            JOptionPane.showMessageDialog(parentFrame, message, "Highscore", JOptionPane.INFORMATION_MESSAGE);
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(parentFrame, "Failed to read highscore.", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        int singlePlayerHighscore = Highscore.getSinglePlayerHighscore();
+        int playWithComputerHighscore = Highscore.getPlayWithComputerHighscore();
+        String message = String.format("Single Player:    %d%nwith Computer:  %d",
+                singlePlayerHighscore, playWithComputerHighscore);
+        JOptionPane.showMessageDialog(parentFrame, message, "Highscore", JOptionPane.INFORMATION_MESSAGE);
     }
 
     // Getter dla wybranego trybu gry
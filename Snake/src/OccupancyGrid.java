@@ -0,0 +1,104 @@
+import java.util.Arrays;
+
+// Siatka zajętości planszy indeksowana numerem kafelka (y * width + x).
+// Dla każdego kafelka przechowuje liczbę segmentów węży (1 bajt), a przeszkody i owoce trzyma
+// w osobnych maskach bitowych. Wszystkie zapytania działają w O(1), a plansza nie ma obiektów na kafelek.
+public class OccupancyGrid {
+    private final int width;
+    private final int height;
+    private final byte[] segments;
+    private final long[] obstacles;
+    private final long[] fruits;
+
+    public OccupancyGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.segments = new byte[width * height];
+        this.obstacles = new long[(width * height + 63) >>> 6];
+        this.fruits = new long[(width * height + 63) >>> 6];
+    }
+
+    // Czyszczenie całej siatki
+    public void clear() {
+        Arrays.fill(segments, (byte) 0);
+        Arrays.fill(obstacles, 0L);
+        Arrays.fill(fruits, 0L);
+    }
+
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public int tile(int x, int y) {
+        return y * width + x;
+    }
+
+    // Dodanie segmentu węża (pola poza planszą są ignorowane)
+    public void addSegment(int x, int y) {
+        if (!inBounds(x, y)) return;
+        segments[tile(x, y)]++;
+    }
+
+    // Usunięcie segmentu węża z kafelka. Kafelek bez segmentów oznacza, że siatka rozeszła się z ciałami
+    // węży - to błąd silnika, więc zamiast go ukrywać kończymy krok wyjątkiem.
+    public void removeSegment(int x, int y) {
+        if (!inBounds(x, y)) return;
+        int t = tile(x, y);
+        if (segments[t] == 0) {
+            throw new IllegalStateException("No snake segment to remove at " + x + "," + y);
+        }
+        segments[t]--;
+    }
+
+    public void setObstacle(int x, int y) {
+        int t = tile(x, y);
+        obstacles[t >>> 6] |= 1L << t;
+    }
+
+    public void clearObstacle(int x, int y) {
+        int t = tile(x, y);
+        obstacles[t >>> 6] &= ~(1L << t);
+    }
+
+    public boolean hasObstacle(int x, int y) {
+        int t = tile(x, y);
+        return (obstacles[t >>> 6] & (1L << t)) != 0;
+    }
+
+    public void setFruit(int x, int y, boolean present) {
+        int t = tile(x, y);
+        if (present) {
+            fruits[t >>> 6] |= 1L << t;
+        } else {
+            fruits[t >>> 6] &= ~(1L << t);
+        }
+    }
+
+    public boolean hasFruit(int x, int y) {
+        int t = tile(x, y);
+        return (fruits[t >>> 6] & (1L << t)) != 0;
+    }
+
+    // Liczba segmentów węży na kafelku
+    public int segmentsAt(int x, int y) {
+        return segments[tile(x, y)];
+    }
+
+    // Kafelek jest wolny, jeśli leży na planszy i nie ma na nim węża ani przeszkody
+    public boolean isFree(int x, int y) {
+        return inBounds(x, y) && segments[tile(x, y)] == 0 && !hasObstacle(x, y);
+    }
+
+    // Kafelek jest pusty, jeśli jest wolny i nie leży na nim owoc
+    public boolean isEmpty(int x, int y) {
+        return isFree(x, y) && !hasFruit(x, y);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,141 @@
+import java.util.Arrays;
+
+// Wyszukiwanie ścieżki A* po siatce zajętości dla węży komputera.
+// Wszystkie bufory (kopiec, tablica odwiedzonych kafelków, koszty) są przydzielane raz i używane
+// ponownie w każdym wyszukiwaniu, a ich rozmiar zależy od limitu rozwiniętych węzłów, a nie od
+// rozmiaru planszy. Odwiedzone kafelki trzymane są w tablicy mieszającej czyszczonej numerem przebiegu.
+public class PathFinder {
+    private static final char[] DIRECTIONS = {'L', 'R', 'U', 'D'};
+    private static final int[] DX = {-1, 1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+    private static final long SLOT_MASK = (1L << 21) - 1;
+
+    private final OccupancyGrid grid;
+    private final int maxNodes;
+    private final int mask;
+    private final int[] keys;
+    private final int[] stamps;
+    private final int[] cost;
+    private final byte[] firstStep;
+    private final boolean[] closed;
+    private final long[] heap;
+    private int heapSize;
+    private int stamp;
+    private int expanded;
+
+    public PathFinder(OccupancyGrid grid, int maxNodes) {
+        this.grid = grid;
+        this.maxNodes = maxNodes;
+        int capacity = Integer.highestOneBit(Math.max(16, maxNodes * 8) - 1) << 1;
+        this.mask = capacity - 1;
+        this.keys = new int[capacity];
+        this.stamps = new int[capacity];
+        this.cost = new int[capacity];
+        this.firstStep = new byte[capacity];
+        this.closed = new boolean[capacity];
+        this.heap = new long[maxNodes * 4 + 4];
+    }
+
+    // Pierwszy krok najkrótszej ścieżki od (fromX, fromY) do (toX, toY) omijającej zajęte kafelki,
+    // albo 0, jeśli cel nie został osiągnięty w limicie budget rozwiniętych węzłów.
+    // Kafelek celu może być zajęty (np. głowa gracza) - wtedy ścieżka kończy się obok niego.
+    public char findStep(int fromX, int fromY, int toX, int toY, int budget) {
+        expanded = 0;
+        if (!grid.inBounds(toX, toY) || fromX == toX && fromY == toY) {
+            return 0;
+        }
+        budget = Math.min(budget, maxNodes);
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        heapSize = 0;
+
+        int startSlot = slot(SnakeBodies.pack(fromX, fromY));
+        cost[startSlot] = 0;
+        firstStep[startSlot] = -1;
+        push(0, heuristic(fromX, fromY, toX, toY), startSlot);
+
+        while (heapSize > 0 && expanded < budget) {
+            int current = pop();
+            if (closed[current]) continue;
+            closed[current] = true;
+            expanded++;
+
+            int x = SnakeBodies.unpackX(keys[current]);
+            int y = SnakeBodies.unpackY(keys[current]);
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                int first = firstStep[current] < 0 ? d : firstStep[current];
+                if (nx == toX && ny == toY) {
+                    return DIRECTIONS[first];
+                }
+                if (!grid.isFree(nx, ny)) continue;
+                int next = slot(SnakeBodies.pack(nx, ny));
+                int g = cost[current] + 1;
+                if (closed[next] || cost[next] <= g) continue;
+                cost[next] = g;
+                firstStep[next] = (byte) first;
+                if (heapSize < heap.length) {
+                    push(g, heuristic(nx, ny, toX, toY), next);
+                }
+            }
+        }
+        return 0;
+    }
+
+    // Liczba węzłów rozwiniętych w ostatnim wyszukiwaniu
+    public int getExpanded() {
+        return expanded;
+    }
+
+    private static int heuristic(int x, int y, int toX, int toY) {
+        return Math.abs(toX - x) + Math.abs(toY - y);
+    }
+
+    // Miejsce zapakowanego kafelka w tablicy mieszającej (nowe miejsca są inicjalizowane jako nieodwiedzone)
+    private int slot(int tile) {
+        int i = (tile * 0x9E3779B1 >>> 16 ^ tile) & mask;
+        while (stamps[i] == stamp) {
+            if (keys[i] == tile) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        stamps[i] = stamp;
+        keys[i] = tile;
+        cost[i] = Integer.MAX_VALUE;
+        closed[i] = false;
+        return i;
+    }
+
+    // Kopiec binarny wpisów zapakowanych w long: f = g + h, potem h (przy remisie bliżej celu), potem miejsce
+    private void push(int g, int h, int slot) {
+        long entry = ((long) (g + h) << 42) | ((long) h << 21) | slot;
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= entry) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = entry;
+    }
+
+    private int pop() {
+        int result = (int) (heap[0] & SLOT_MASK);
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= last) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return result;
+    }
+}
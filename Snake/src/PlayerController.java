@@ -0,0 +1,69 @@
+// Sterowanie wężem gracza bez klawiatury (gry rozgrywane automatycznie, pomiary, testy AI).
+// decide() dostaje silnik przed krokiem i zwraca kierunek przekazywany do step() albo 0 - bez zmiany.
+// Wbudowane sterowania nie mają stanu, więc jedną instancję mogą dzielić wątki; sterowanie ze stanem
+// trzeba tworzyć osobno dla każdego wątku.
+public interface PlayerController {
+    char decide(GameEngine engine);
+
+    // Bez skrętów - wąż jedzie prosto do pierwszej kolizji
+    PlayerController STRAIGHT = engine -> 0;
+
+    // Cykl Hamiltona planszy: wiersze przechodzone zygzakiem od kolumny 1, powrót do góry kolumną 0.
+    // Wąż idący po cyklu nigdy nie wjedzie sam w siebie (wymaga parzystej wysokości planszy).
+    PlayerController HAMILTONIAN = engine -> {
+        int x = engine.getSnakes().headX(GameEngine.PLAYER);
+        int y = engine.getSnakes().headY(GameEngine.PLAYER);
+        if (x == 0) {
+            return y == 0 ? 'R' : 'U';
+        }
+        if (y % 2 == 0) {
+            return x == engine.getWidth() - 1 ? 'D' : 'R';
+        }
+        if (x == 1) {
+            return y == engine.getHeight() - 1 ? 'L' : 'D';
+        }
+        return 'L';
+    };
+
+    // Zachłannie do najbliższego owocu po wolnych kafelkach (bez planowania dalej niż jeden krok)
+    PlayerController GREEDY = engine -> {
+        OccupancyGrid grid = engine.getGrid();
+        int x = engine.getSnakes().headX(GameEngine.PLAYER);
+        int y = engine.getSnakes().headY(GameEngine.PLAYER);
+        int targetX = x;
+        int targetY = y;
+        int best = Integer.MAX_VALUE;
+        for (GameEngine.Fruit fruit : engine.getFruits()) {
+            int distance = Math.abs(fruit.position.x - x) + Math.abs(fruit.position.y - y);
+            if (distance < best) {
+                best = distance;
+                targetX = fruit.position.x;
+                targetY = fruit.position.y;
+            }
+        }
+        char choice = 0;
+        int choiceDistance = Integer.MAX_VALUE;
+        for (int d = 0; d < 4; d++) {
+            char dir = "LRUD".charAt(d);
+            int nx = dir == 'L' ? x - 1 : dir == 'R' ? x + 1 : x;
+            int ny = dir == 'U' ? y - 1 : dir == 'D' ? y + 1 : y;
+            if (!grid.isFree(nx, ny)) continue;
+            int distance = Math.abs(targetX - nx) + Math.abs(targetY - ny);
+            if (distance < choiceDistance) {
+                choiceDistance = distance;
+                choice = dir;
+            }
+        }
+        return choice;
+    };
+
+    // Wbudowane sterowanie o podanej nazwie (straight, hamiltonian, greedy)
+    static PlayerController byName(String name) {
+        switch (name.toLowerCase()) {
+            case "straight": return STRAIGHT;
+            case "hamiltonian": return HAMILTONIAN;
+            case "greedy": return GREEDY;
+            default: throw new IllegalArgumentException("Unknown controller: " + name);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Zapis rozgrywki do ponownego odtworzenia: ziarno losowania i kierunek gracza w każdym kroku.
+// Silnik gry jest deterministyczny (jeden generator losowy, jeden wątek kroku), więc to wystarcza
+// do odtworzenia całej gry łącznie z owocami, przeszkodami i ruchami węży komputera.
+//
+// Format pliku:
+//   "SNKR", wersja (varint), tryb gry (1 bajt), szerokość i wysokość planszy (varint, od wersji 3),
+//   liczba węży komputera (varint, tylko arena), ziarno (8 bajtów), odstęp klatek kluczowych (varint),
+//   serie kroków: varint (liczba kroków << 2 | kierunek), zakończone varint 0,
+//   końcowy wynik (varint) i liczba kroków (varint) do sprawdzenia odtworzenia,
+//   klatki kluczowe (pełny stan gry z GameEngine.writeState),
+//   indeks: początek klatek, ich liczba i pary (krok, przesunięcie) jako varint,
+//   na końcu położenie indeksu (4 bajty).
+// Kierunek zmienia się rzadko, więc jedna seria zajmuje zwykle 1-2 bajty na kilka lub kilkanaście kroków.
+// Pliki wersji 1 nie są już obsługiwane: losowanie pustych kafelków zmieniło się razem z klatkami kluczowymi.
+// Pliki wersji 2 nie zapisują rozmiaru planszy - zawsze była to plansza domyślna. Klatki kluczowe
+// wersji 2 i 3 zawierają zawsze trzy węże, także w grze jednoosobowej. Areny z wersji 4 nie są
+// obsługiwane: od wersji 5 węże areny decydują równocześnie (dwie fazy kroku), więc gra potoczyłaby się inaczej.
+public class Replay {
+    static final int MAGIC = 0x534E4B52; // "SNKR"
+    static final int VERSION = 5;
+
+    // Tryby gry zapisywane w nagłówku
+    static final int MODE_SINGLE = 0;
+    static final int MODE_COMPUTER = 1;
+    static final int MODE_ARENA = 2;
+
+    private static final char[] DIRECTIONS = {'L', 'R', 'U', 'D'};
+
+    private final int mode;
+    private final int enemies;
+    private final int keyframeSnakes; // liczba węży zapisanych w klatce kluczowej
+    private final int width;
+    private final int height;
+    private final long seed;
+    private final char[] inputs;
+    private final int score;
+    private final int keyframeInterval;
+    private final byte[] data;
+    private final int[] keyframeTicks;
+    private final int[] keyframeOffsets; // położenie klatek w data
+
+    Replay(int mode, int enemies, int keyframeSnakes, int width, int height, long seed, char[] inputs, int score,
+           int keyframeInterval, byte[] data, int[] keyframeTicks, int[] keyframeOffsets) {
+        this.mode = mode;
+        this.enemies = enemies;
+        this.keyframeSnakes = keyframeSnakes;
+        this.width = width;
+        this.height = height;
+        this.seed = seed;
+        this.inputs = inputs;
+        this.score = score;
+        this.keyframeInterval = keyframeInterval;
+        this.data = data;
+        this.keyframeTicks = keyframeTicks;
+        this.keyframeOffsets = keyframeOffsets;
+    }
+
+    public boolean isPlayWithComputer() {
+        return mode != MODE_SINGLE;
+    }
+
+    public boolean isArena() {
+        return mode == MODE_ARENA;
+    }
+
+    // Liczba węży komputera
+    public int getEnemies() {
+        return enemies;
+    }
+
+    // Nowy silnik w trybie i z planszą nagranej gry, gotowy do przeliczenia jej od początku
+    public GameEngine newEngine() {
+        return isArena() ? GameEngine.arena(width, height, enemies, seed)
+                : new GameEngine(isPlayWithComputer(), width, height, seed);
+    }
+
+    // Rozmiar planszy nagranej gry w kafelkach
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Liczba zapisanych kroków
+    public int getTicks() {
+        return inputs.length;
+    }
+
+    // Kierunek gracza w kroku o podanym numerze
+    public char getInput(int tick) {
+        return inputs[tick];
+    }
+
+    // Wynik zapisany na końcu gry
+    public int getScore() {
+        return score;
+    }
+
+    // Odstęp klatek kluczowych użyty przy nagrywaniu (0 - brak klatek)
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    public int getKeyframeCount() {
+        return keyframeTicks.length;
+    }
+
+    // Numer ostatniej klatki kluczowej nie późniejszej niż podany krok albo -1
+    public int keyframeAtOrBefore(int tick) {
+        int index = Arrays.binarySearch(keyframeTicks, tick);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    // Krok, po którym zapisano klatkę kluczową
+    public int getKeyframeTick(int keyframe) {
+        return keyframeTicks[keyframe];
+    }
+
+    // Liczba węży zapisanych w każdej klatce kluczowej (do GameEngine.readState)
+    int getKeyframeSnakes() {
+        return keyframeSnakes;
+    }
+
+    // Strumień z zapisanym stanem gry klatki kluczowej (do GameEngine.readState)
+    DataInputStream openKeyframe(int keyframe) {
+        int offset = keyframeOffsets[keyframe];
+        return new DataInputStream(new ByteArrayInputStream(data, offset, data.length - offset));
+    }
+
+    // Odczyt zapisu z pliku
+    public static Replay read(Path path) throws IOException {
+        return read(Files.readAllBytes(path));
+    }
+
+    // Odczyt zapisu z tablicy bajtów
+    public static Replay read(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = (int) readVarint(in);
+        if (version < 2 || version > VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        int mode = in.readUnsignedByte();
+        if (mode > MODE_ARENA) {
+            throw new IOException("Unsupported game mode " + mode);
+        }
+        if (mode == MODE_ARENA && version < 5) {
+            throw new IOException("Arena replays before version 5 are not supported");
+        }
+        int width = version >= 3 ? (int) readVarint(in) : GameEngine.BOARD_TILES_X;
+        int height = version >= 3 ? (int) readVarint(in) : GameEngine.BOARD_TILES_Y;
+        int enemies = mode == MODE_ARENA ? (int) readVarint(in) : mode == MODE_COMPUTER ? 2 : 0;
+        int keyframeSnakes = version >= 4 ? 1 + enemies : 3;
+        long seed = in.readLong();
+        int keyframeInterval = (int) readVarint(in);
+
+        char[] inputs = new char[64];
+        int ticks = 0;
+        while (true) {
+            long run = readVarint(in);
+            if (run == 0) break;
+            char direction = DIRECTIONS[(int) (run & 3)];
+            for (long i = run >>> 2; i > 0; i--) {
+                if (ticks == inputs.length) {
+                    inputs = Arrays.copyOf(inputs, ticks * 2);
+                }
+                inputs[ticks++] = direction;
+            }
+        }
+        int score = (int) readVarint(in);
+        if (readVarint(in) != ticks) {
+            throw new IOException("Corrupted replay: tick count mismatch");
+        }
+        inputs = Arrays.copyOf(inputs, ticks);
+
+        // Indeks klatek kluczowych - jego położenie zapisane jest w ostatnich 4 bajtach
+        if (data.length < 4) {
+            throw new IOException("Corrupted replay: missing keyframe index");
+        }
+        int indexStart = ((data[data.length - 4] & 0xFF) << 24) | ((data[data.length - 3] & 0xFF) << 16)
+                | ((data[data.length - 2] & 0xFF) << 8) | (data[data.length - 1] & 0xFF);
+        if (indexStart < 0 || indexStart > data.length - 4) {
+            throw new IOException("Corrupted replay: bad keyframe index offset");
+        }
+        DataInputStream index = new DataInputStream(new ByteArrayInputStream(data, indexStart, data.length - 4 - indexStart));
+        int keyframesStart = (int) readVarint(index);
+        int count = (int) readVarint(index);
+        int[] keyframeTicks = new int[count];
+        int[] keyframeOffsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            keyframeTicks[i] = (int) readVarint(index);
+            keyframeOffsets[i] = keyframesStart + (int) readVarint(index);
+            if (keyframeOffsets[i] >= indexStart || i > 0 && keyframeTicks[i] <= keyframeTicks[i - 1]) {
+                throw new IOException("Corrupted replay: bad keyframe entry");
+            }
+        }
+        return new Replay(mode, enemies, keyframeSnakes, width, height, seed, inputs, score, keyframeInterval, data, keyframeTicks, keyframeOffsets);
+    }
+
+    // Kod kierunku (0-3) zapisywany w dolnych bitach serii
+    static int directionCode(char direction) {
+        switch (direction) {
+            case 'L': return 0;
+            case 'R': return 1;
+            case 'U': return 2;
+            case 'D': return 3;
+            default: throw new IllegalArgumentException("Invalid direction: " + direction);
+        }
+    }
+
+    // Liczba bez znaku zapisana po 7 bitów na bajt (najstarszy bit oznacza kolejny bajt)
+    static long readVarint(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
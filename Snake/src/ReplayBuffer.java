@@ -0,0 +1,57 @@
+import java.util.Arrays;
+
+// Rosnący bufor bajtów dla nagrań: liczby stałej długości (big-endian, jak DataOutput)
+// i liczby bez znaku zapisywane po 7 bitów na bajt. Bufor podwaja się tylko przy przepełnieniu,
+// więc zapis kolejnych kroków nie tworzy obiektów.
+public class ReplayBuffer {
+    private byte[] data = new byte[256];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void writeByte(int b) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size++] = (byte) b;
+    }
+
+    public void writeInt(int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            writeByte(value >>> shift);
+        }
+    }
+
+    public void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    // Liczba bez znaku po 7 bitów na bajt (najstarszy bit oznacza kolejny bajt)
+    public void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    // Dopisanie zawartości innego bufora
+    public void write(ReplayBuffer other) {
+        if (size + other.size > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, size + other.size));
+        }
+        System.arraycopy(other.data, 0, data, size, other.size);
+        size += other.size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(data, size);
+    }
+}
@@ -0,0 +1,71 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+// Odtwarzanie zapisanej rozgrywki bez okna i bez czekania między krokami.
+// Uruchomienie z wiersza poleceń: java ReplayPlayer plik.replay [...]
+public class ReplayPlayer {
+    // Ponowne przeliczenie całej gry od pierwszego kroku (bez klatek kluczowych, żeby sprawdzić
+    // deterministyczność symulacji); zwraca silnik w stanie po ostatnim zapisanym kroku
+    public static GameEngine play(Replay replay) {
+        GameEngine engine = replay.newEngine();
+        simulate(engine, replay, replay.getTicks());
+        return engine;
+    }
+
+    // Przeliczenie gry do podanego kroku (liczonego od zera). Gra startuje od ostatniej klatki kluczowej
+    // przed tym krokiem, więc przewinięcie kosztuje najwyżej odstęp klatek kroków niezależnie od długości gry.
+    public static GameEngine playTo(Replay replay, int tick) {
+        GameEngine engine = replay.newEngine();
+        seek(engine, replay, tick);
+        return engine;
+    }
+
+    // Przewinięcie silnika nagranej gry (z replay.newEngine()) do podanego kroku bez tworzenia nowego
+    // silnika. Krok dalej w obrębie tej samej klatki kluczowej jest tylko doliczany od bieżącego stanu;
+    // w pozostałych przypadkach stan jest wczytywany z ostatniej klatki kluczowej przed krokiem
+    // (albo gra zaczyna się od nowa, gdy takiej klatki nie ma).
+    public static void seek(GameEngine engine, Replay replay, int tick) {
+        int end = Math.min(tick, replay.getTicks());
+        int keyframe = replay.keyframeAtOrBefore(end);
+        int start = keyframe >= 0 ? replay.getKeyframeTick(keyframe) : 0;
+        long current = engine.getTick();
+        if (current > end || current < start) {
+            if (keyframe >= 0) {
+                try {
+                    engine.readState(replay.openKeyframe(keyframe), replay.getKeyframeSnakes());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Corrupted replay keyframe", e);
+                }
+            } else {
+                engine.reset(replay.getSeed());
+            }
+        }
+        simulate(engine, replay, end);
+    }
+
+    // Wykonanie zapisanych kroków od bieżącego kroku silnika do kroku end
+    private static void simulate(GameEngine engine, Replay replay, int end) {
+        for (int i = (int) engine.getTick(); i < end && engine.isRunning(); i++) {
+            engine.step(replay.getInput(i));
+        }
+    }
+
+    // Sprawdzenie, czy odtworzenie daje ten sam wynik i liczbę kroków co nagranie
+    public static boolean verify(Replay replay) {
+        GameEngine engine = play(replay);
+        return engine.getTick() == replay.getTicks() && engine.getScore() == replay.getScore() && !engine.isRunning();
+    }
+
+    public static void main(String[] args) throws IOException {
+        for (String file : args) {
+            Replay replay = Replay.read(Paths.get(file));
+            long start = System.nanoTime();
+            GameEngine engine = play(replay);
+            long micros = (System.nanoTime() - start) / 1000;
+            boolean ok = engine.getTick() == replay.getTicks() && engine.getScore() == replay.getScore();
+            System.out.printf("%s: %d ticks, score %d (recorded %d) in %d us%s%n", file, engine.getTick(),
+                    engine.getScore(), replay.getScore(), micros, ok ? "" : " - MISMATCH");
+        }
+    }
+}
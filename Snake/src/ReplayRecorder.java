@@ -0,0 +1,134 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Nagrywanie rozgrywki w formacie Replay. Wołane z wątku kroku gry: record() tylko dopisuje
+// bajty do buforów, które rosną przez podwojenie, więc nagrywanie nie tworzy obiektów w każdym kroku.
+// Co keyframeInterval kroków zapisywana jest klatka kluczowa z pełnym stanem gry, od której
+// odtwarzacz może zacząć zamiast liczyć grę od początku.
+public class ReplayRecorder {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 256;
+
+    private final ReplayBuffer out = new ReplayBuffer();
+    private final ReplayBuffer keyframes = new ReplayBuffer();
+    private int[] keyframeTicks = new int[16];
+    private int[] keyframeOffsets = new int[16];
+    private int keyframeCount;
+    private int keyframeInterval;
+    private char runDirection;
+    private long runLength;
+    private int ticks;
+    private boolean finished;
+
+    // Rozpoczęcie nowego nagrania gry silnika engine z domyślnym odstępem klatek kluczowych
+    public void start(GameEngine engine, long seed) {
+        start(engine, seed, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    // Rozpoczęcie nowego nagrania (poprzednie jest porzucane). Mniejszy odstęp klatek kluczowych
+    // to szybsze przewijanie kosztem większego pliku; 0 wyłącza klatki kluczowe.
+    public void start(GameEngine engine, long seed, int keyframeInterval) {
+        out.clear();
+        keyframes.clear();
+        keyframeCount = 0;
+        this.keyframeInterval = keyframeInterval;
+        runDirection = 0;
+        runLength = 0;
+        ticks = 0;
+        finished = false;
+        out.writeInt(Replay.MAGIC);
+        out.writeVarint(Replay.VERSION);
+        out.writeByte(engine.isArena() ? Replay.MODE_ARENA : engine.isPlayWithComputer() ? Replay.MODE_COMPUTER : Replay.MODE_SINGLE);
+        out.writeVarint(engine.getWidth());
+        out.writeVarint(engine.getHeight());
+        if (engine.isArena()) {
+            out.writeVarint(engine.getEnemyCount());
+        }
+        out.writeLong(seed);
+        out.writeVarint(keyframeInterval);
+    }
+
+    // Zapisanie kroku, który silnik właśnie wykonał: kierunku gracza i co pewien czas pełnego stanu
+    public void record(GameEngine engine) {
+        char direction = engine.getDirection();
+        if (direction != runDirection) {
+            flushRun();
+            runDirection = direction;
+        }
+        runLength++;
+        ticks++;
+        if (keyframeInterval > 0 && ticks % keyframeInterval == 0) {
+            writeKeyframe(engine);
+        }
+    }
+
+    private void writeKeyframe(GameEngine engine) {
+        if (keyframeCount == keyframeTicks.length) {
+            keyframeTicks = Arrays.copyOf(keyframeTicks, keyframeCount * 2);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframeCount * 2);
+        }
+        keyframeTicks[keyframeCount] = ticks;
+        keyframeOffsets[keyframeCount] = keyframes.size();
+        keyframeCount++;
+        engine.writeState(keyframes);
+    }
+
+    // Zakończenie nagrania z końcowym wynikiem gry: dopisanie klatek kluczowych i ich indeksu
+    public void finish(int score) {
+        if (finished) return;
+        flushRun();
+        out.writeVarint(0);
+        out.writeVarint(score);
+        out.writeVarint(ticks);
+
+        int keyframesStart = out.size();
+        out.write(keyframes);
+        int indexStart = out.size();
+        out.writeVarint(keyframesStart);
+        out.writeVarint(keyframeCount);
+        for (int i = 0; i < keyframeCount; i++) {
+            out.writeVarint(keyframeTicks[i]);
+            out.writeVarint(keyframeOffsets[i]);
+        }
+        out.writeInt(indexStart); // na samym końcu pliku, żeby indeks dało się znaleźć od razu
+        finished = true;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    // Kopia zakończonego nagrania
+    public byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    // Zapis zakończonego nagrania do pliku
+    public void save(Path path) throws IOException {
+        try (OutputStream stream = Files.newOutputStream(path)) {
+            stream.write(out.toByteArray());
+        }
+    }
+
+    // Zapis kopii zakończonego nagrania na wątku zapisu w tle (bufor można od razu użyć ponownie)
+    public void saveInBackground(String filename) {
+        byte[] copy = toByteArray();
+        BackgroundWriter.execute(() -> {
+            try {
+                Files.write(Paths.get(filename), copy);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private void flushRun() {
+        if (runLength > 0) {
+            out.writeVarint(runLength << 2 | Replay.directionCode(runDirection));
+            runLength = 0;
+        }
+    }
+}
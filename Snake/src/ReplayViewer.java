@@ -0,0 +1,104 @@
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+// Przeglądarka nagrań: rysuje planszę tym samym kodem co gra (BoardPainter i FrameSnapshot),
+// a suwak pozwala przeskoczyć do dowolnego kroku. Przeskok zaczyna od najbliższej wcześniejszej
+// klatki kluczowej, więc trwa tyle samo na początku i na końcu długiej gry, i odtwarza ją w tym
+// samym silniku, więc przeciąganie suwaka nie tworzy nowych plansz.
+// Uruchomienie: java ReplayViewer plik.replay
+public class ReplayViewer extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private final int TILE_SIZE = BoardPainter.TILE_SIZE;
+    private final int BOARD_WIDTH = BoardPainter.VIEW_TILES_X * TILE_SIZE;
+    private final int BOARD_HEIGHT = BoardPainter.VIEW_TILES_Y * TILE_SIZE;
+
+    private final Replay replay;
+    private final BoardPainter painter = new BoardPainter(BoardPainter.VIEW_TILES_X, BoardPainter.VIEW_TILES_Y, TILE_SIZE);
+    private final FrameSnapshot frame = new FrameSnapshot();
+    private final JSlider slider;
+    private final Timer timer;
+    private final GameEngine engine; // jeden silnik na całe przeglądanie, przewijany przez ReplayPlayer.seek
+
+    // Konstruktor przeglądarki - board to panel planszy, pod nim suwak i przycisk odtwarzania
+    public ReplayViewer(Replay replay) {
+        this.replay = replay;
+        this.engine = replay.newEngine();
+        setLayout(new BorderLayout());
+
+        JPanel board = new JPanel() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                painter.collectDirty();
+                painter.paint(g, frame, this);
+                g.setColor(Color.WHITE);
+                g.drawString("Score: " + frame.getScore() + "   Tick: " + frame.getTick(), 10, 10);
+            }
+        };
+        board.setPreferredSize(new Dimension(BOARD_WIDTH, BOARD_HEIGHT));
+        board.setBackground(Color.BLACK);
+
+        slider = new JSlider(0, replay.getTicks(), 0);
+        slider.addChangeListener(e -> {
+            if (slider.getValue() != engine.getTick()) {
+                seek(slider.getValue());
+                board.repaint();
+            }
+        });
+
+        JButton playButton = new JButton("Play");
+        timer = new Timer(50, e -> {
+            if (engine.getTick() >= replay.getTicks() || !engine.isRunning()) {
+                ((Timer) e.getSource()).stop();
+                playButton.setText("Play");
+                return;
+            }
+            engine.step(replay.getInput((int) engine.getTick()));
+            frame.capture(engine);
+            painter.markAll();
+            slider.setValue((int) engine.getTick());
+            board.repaint();
+        });
+        playButton.addActionListener(e -> {
+            if (timer.isRunning()) {
+                timer.stop();
+                playButton.setText("Play");
+            } else {
+                timer.start();
+                playButton.setText("Pause");
+            }
+        });
+
+        JPanel controls = new JPanel(new BorderLayout());
+        controls.add(playButton, BorderLayout.WEST);
+        controls.add(slider, BorderLayout.CENTER);
+        add(board, BorderLayout.CENTER);
+        add(controls, BorderLayout.SOUTH);
+
+        seek(0);
+    }
+
+    // Przeskok do stanu po podanym kroku
+    public void seek(int tick) {
+        ReplayPlayer.seek(engine, replay, tick);
+        frame.capture(engine);
+        painter.markAll();
+        slider.setValue((int) engine.getTick());
+    }
+
+    // Metoda główna otwierająca nagranie podane w argumencie
+    public static void main(String[] args) throws IOException {
+        Replay replay = Replay.read(Paths.get(args[0]));
+        SwingUtilities.invokeLater(() -> {
+            JFrame window = new JFrame("Snake Game - Replay " + args[0]);
+            window.setContentPane(new ReplayViewer(replay));
+            window.pack();
+            window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            window.setLocationRelativeTo(null);
+            window.setVisible(true);
+        });
+    }
+}
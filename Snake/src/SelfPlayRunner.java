@@ -0,0 +1,226 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Rozgrywanie wielu gier bez okna i bez czekania między krokami, na wszystkich rdzeniach.
+// Każdy wątek ma własny silnik i własne sterowanie gracza i pobiera numery kolejnych gier
+// ze wspólnego licznika. Gra numer i ma ziarno gameSeed(seed, i), więc każdą z nich można
+// później odtworzyć pojedynczo. Wyniki wątków są łączone dopiero na końcu.
+// Uruchomienie: java SelfPlayRunner [gry] [sterowanie] [single|computer|arena=węże] [limit kroków] [wątki] [ziarno] [szer.xwys.]
+public class SelfPlayRunner {
+    // Zbiorcze wyniki serii gier
+    public static final class Result {
+        private final int games;
+        private final int wins;
+        private final int losses;
+        private final int timeouts;
+        private final int[] scores;  // posortowane rosnąco
+        private final int[] ticks;   // posortowane rosnąco
+        private final long elapsedNanos;
+
+        Result(int wins, int losses, int timeouts, int[] scores, int[] ticks, long elapsedNanos) {
+            this.games = scores.length;
+            this.wins = wins;
+            this.losses = losses;
+            this.timeouts = timeouts;
+            this.scores = scores;
+            this.ticks = ticks;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        // Odsetek gier wygranych przez gracza (rozbił się tylko wąż komputera)
+        public double getWinRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        public double getLossRate() {
+            return games == 0 ? 0 : (double) losses / games;
+        }
+
+        // Odsetek gier przerwanych po limicie kroków
+        public double getTimeoutRate() {
+            return games == 0 ? 0 : (double) timeouts / games;
+        }
+
+        public int scorePercentile(double percentile) {
+            return percentile(scores, percentile);
+        }
+
+        public int survivalPercentile(double percentile) {
+            return percentile(ticks, percentile);
+        }
+
+        public double meanScore() {
+            return mean(scores);
+        }
+
+        public double meanSurvival() {
+            return mean(ticks);
+        }
+
+        public double gamesPerMinute() {
+            return elapsedNanos == 0 ? 0 : games * 60e9 / elapsedNanos;
+        }
+
+        private static int percentile(int[] sorted, double percentile) {
+            if (sorted.length == 0) return 0;
+            int rank = (int) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        private static double mean(int[] values) {
+            long sum = 0;
+            for (int value : values) sum += value;
+            return values.length == 0 ? 0 : (double) sum / values.length;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "games %d in %.1f s (%.0f games/min)%n"
+                            + "win %.2f%%  loss %.2f%%  timeout %.2f%%%n"
+                            + "score     mean %.2f  p50 %d  p90 %d  p99 %d  max %d%n"
+                            + "survival  mean %.1f  p50 %d  p90 %d  p99 %d  max %d ticks",
+                    games, elapsedNanos / 1e9, gamesPerMinute(),
+                    100 * getWinRate(), 100 * getLossRate(), 100 * getTimeoutRate(),
+                    meanScore(), scorePercentile(50), scorePercentile(90), scorePercentile(99), scorePercentile(100),
+                    meanSurvival(), survivalPercentile(50), survivalPercentile(90), survivalPercentile(99),
+                    survivalPercentile(100));
+        }
+    }
+
+    // Wyniki jednego wątku - zapisywane bez synchronizacji, łączone po zakończeniu wszystkich gier
+    private static final class WorkerStats {
+        int wins;
+        int losses;
+        int timeouts;
+        int count;
+        int[] scores = new int[1024];
+        int[] ticks = new int[1024];
+
+        void add(GameEngine engine) {
+            if (count == scores.length) {
+                scores = Arrays.copyOf(scores, count * 2);
+                ticks = Arrays.copyOf(ticks, count * 2);
+            }
+            scores[count] = engine.getScore();
+            ticks[count] = (int) engine.getTick();
+            count++;
+            if (engine.isRunning()) {
+                timeouts++;
+            } else if ((engine.getCrashed() & (1 << GameEngine.PLAYER)) != 0) {
+                losses++;
+            } else {
+                wins++;
+            }
+        }
+    }
+
+    // Ziarno gry o podanym numerze w serii (rozproszone, żeby kolejne gry nie były do siebie podobne)
+    public static long gameSeed(long seed, int game) {
+        long z = seed + (game + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Rozegranie serii gier na domyślnej planszy; controllers tworzy sterowanie dla każdego wątku osobno
+    public static Result run(int games, boolean playWithComputer, Supplier<PlayerController> controllers,
+                             int maxTicks, int threads, long seed) throws InterruptedException {
+        return run(games, playWithComputer, GameEngine.BOARD_TILES_X, GameEngine.BOARD_TILES_Y,
+                controllers, maxTicks, threads, seed);
+    }
+
+    // Rozegranie serii gier na planszy o podanym rozmiarze (każdy wątek ma własny silnik tego rozmiaru)
+    public static Result run(int games, boolean playWithComputer, int width, int height,
+                             Supplier<PlayerController> controllers, int maxTicks, int threads, long seed)
+            throws InterruptedException {
+        return run(games, () -> new GameEngine(playWithComputer, width, height), controllers, maxTicks, threads, seed);
+    }
+
+    // Rozegranie serii gier na silnikach tworzonych przez engines (np. arena), po jednym na wątek
+    public static Result run(int games, Supplier<GameEngine> engines, Supplier<PlayerController> controllers,
+                             int maxTicks, int threads, long seed) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<WorkerStats>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    GameEngine engine = engines.get();
+                    PlayerController controller = controllers.get();
+                    WorkerStats stats = new WorkerStats();
+                    for (int game = next.getAndIncrement(); game < games; game = next.getAndIncrement()) {
+                        engine.reset(gameSeed(seed, game));
+                        while (engine.isRunning() && engine.getTick() < maxTicks) {
+                            engine.step(controller.decide(engine));
+                        }
+                        stats.add(engine);
+                    }
+                    return stats;
+                }));
+            }
+
+            int wins = 0;
+            int losses = 0;
+            int timeouts = 0;
+            int[] scores = new int[games];
+            int[] ticks = new int[games];
+            int count = 0;
+            for (Future<WorkerStats> worker : workers) {
+                WorkerStats stats = worker.get();
+                wins += stats.wins;
+                losses += stats.losses;
+                timeouts += stats.timeouts;
+                System.arraycopy(stats.scores, 0, scores, count, stats.count);
+                System.arraycopy(stats.ticks, 0, ticks, count, stats.count);
+                count += stats.count;
+            }
+            long elapsed = System.nanoTime() - start;
+            Arrays.sort(scores);
+            Arrays.sort(ticks);
+            return new Result(wins, losses, timeouts, scores, ticks, elapsed);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Self-play game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        PlayerController controller = PlayerController.byName(args.length > 1 ? args[1] : "greedy");
+        String mode = args.length > 2 ? args[2] : "computer";
+        int maxTicks = args.length > 3 ? Integer.parseInt(args[3]) : 5_000;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+        String[] board = (args.length > 6 ? args[6] : GameEngine.BOARD_TILES_X + "x" + GameEngine.BOARD_TILES_Y).split("x");
+        int width = Integer.parseInt(board[0]);
+        int height = Integer.parseInt(board[1]);
+
+        Supplier<GameEngine> engines;
+        if (mode.startsWith("arena=")) {
+            int enemies = Integer.parseInt(mode.substring("arena=".length()));
+            engines = () -> GameEngine.arena(width, height, enemies, seed);
+        } else {
+            boolean playWithComputer = !mode.equals("single");
+            engines = () -> new GameEngine(playWithComputer, width, height);
+        }
+
+        System.out.printf("%d games, %s, %s mode, max %d ticks, %d threads, seed %d, board %dx%d%n", games,
+                args.length > 1 ? args[1] : "greedy", mode, maxTicks, threads, seed, width, height);
+        System.out.println(run(games, engines, () -> controller, maxTicks, threads, seed));
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.Arrays;
+
+// Ciała wszystkich węży gry w układzie struktury tablic: numer węża indeksuje równoległe tablice
+// z buforem cyklicznym kafelków, położeniem głowy w buforze, długością i zapakowaną głową
+// (y w górnych 16 bitach, x w dolnych). Dodanie głowy i usunięcie ogona przesuwają tylko wskaźniki,
+// więc ruch kosztuje O(1) niezależnie od długości węża i nie tworzy nowych obiektów, a przebiegi
+// po wszystkich wężach (np. sprawdzanie kolizji głów) czytają jedną ciągłą tablicę głów.
+public class SnakeBodies {
+    private final int count;
+    private final int[][] rings;  // bufor cykliczny kafelków każdego węża
+    private final int[] ringHeads; // indeks głowy w buforze
+    private final int[] lengths;
+    private final int[] heads;     // zapakowana głowa (kopia rings[s][ringHeads[s]])
+
+    public SnakeBodies(int count, int capacity) {
+        this.count = count;
+        this.rings = new int[count][];
+        for (int s = 0; s < count; s++) {
+            rings[s] = new int[Math.max(4, capacity)];
+        }
+        this.ringHeads = new int[count];
+        this.lengths = new int[count];
+        this.heads = new int[count];
+    }
+
+    public static int pack(int x, int y) {
+        return (y << 16) | (x & 0xFFFF);
+    }
+
+    public static int unpackX(int packed) {
+        return (short) packed;
+    }
+
+    public static int unpackY(int packed) {
+        return packed >> 16;
+    }
+
+    // Liczba węży
+    public int count() {
+        return count;
+    }
+
+    // Łączna pojemność buforów wszystkich węży - tyle segmentów mieści się bez powiększania buforów
+    public int capacity() {
+        int total = 0;
+        for (int s = 0; s < count; s++) {
+            total += rings[s].length;
+        }
+        return total;
+    }
+
+    // Usunięcie wszystkich segmentów wszystkich węży
+    public void clear() {
+        Arrays.fill(ringHeads, 0);
+        Arrays.fill(lengths, 0);
+    }
+
+    // Usunięcie wszystkich segmentów jednego węża
+    public void clear(int s) {
+        ringHeads[s] = 0;
+        lengths[s] = 0;
+    }
+
+    // Dodanie nowej głowy przed obecną (wąż rośnie, dopóki nie usunie się ogona)
+    public void addHead(int s, int x, int y) {
+        if (lengths[s] == rings[s].length) {
+            grow(s);
+        }
+        int head = ringHeads[s] == 0 ? rings[s].length - 1 : ringHeads[s] - 1;
+        int packed = pack(x, y);
+        rings[s][head] = packed;
+        ringHeads[s] = head;
+        heads[s] = packed;
+        lengths[s]++;
+    }
+
+    // Usunięcie ogona, zwraca zapakowany kafelek ogona
+    public int removeTail(int s) {
+        int tail = rings[s][index(s, lengths[s] - 1)];
+        lengths[s]--;
+        return tail;
+    }
+
+    public int length(int s) {
+        return lengths[s];
+    }
+
+    public boolean isEmpty(int s) {
+        return lengths[s] == 0;
+    }
+
+    // Zapakowany kafelek i-tego segmentu węża s licząc od głowy
+    public int get(int s, int i) {
+        return rings[s][index(s, i)];
+    }
+
+    // Zapakowana głowa węża (wąż nie może być pusty)
+    public int head(int s) {
+        return heads[s];
+    }
+
+    public int headX(int s) {
+        return unpackX(heads[s]);
+    }
+
+    public int headY(int s) {
+        return unpackY(heads[s]);
+    }
+
+    // Kopiowanie segmentów węża od głowy do ogona do tablicy od podanego miejsca
+    // (musi pomieścić length(s) elementów)
+    public void copyTo(int s, int[] dst, int offset) {
+        int[] ring = rings[s];
+        int first = Math.min(lengths[s], ring.length - ringHeads[s]);
+        System.arraycopy(ring, ringHeads[s], dst, offset, first);
+        System.arraycopy(ring, 0, dst, offset + first, lengths[s] - first);
+    }
+
+    private int index(int s, int i) {
+        int idx = ringHeads[s] + i;
+        return idx >= rings[s].length ? idx - rings[s].length : idx;
+    }
+
+    // Podwojenie pojemności bufora węża - zdarza się tylko, gdy wąż przekroczy dotychczasową pojemność
+    private void grow(int s) {
+        int[] bigger = new int[rings[s].length * 2];
+        copyTo(s, bigger, 0);
+        rings[s] = bigger;
+        ringHeads[s] = 0;
+    }
+}
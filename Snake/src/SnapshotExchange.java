@@ -0,0 +1,31 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Potrójny bufor migawek bez blokad: jeden zapisywany przez symulację, jeden czytany przez rysowanie,
+// trzeci oczekujący na wymianę. Przy dwóch buforach pisarz mógłby nadpisać klatkę, którą właśnie
+// rysuje wątek EDT, dlatego środkowy bufor jest przekazywany atomową zamianą indeksów.
+public class SnapshotExchange {
+    private static final int FRESH = 4; // bit oznaczający, że środkowy bufor zawiera nową klatkę
+
+    private final FrameSnapshot[] buffers = {new FrameSnapshot(), new FrameSnapshot(), new FrameSnapshot()};
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;  // używany tylko przez pisarza
+    private int front = 2; // używany tylko przez czytelnika
+
+    // Bufor, do którego pisarz zapisuje kolejną klatkę
+    public FrameSnapshot back() {
+        return buffers[back];
+    }
+
+    // Opublikowanie zapisanej klatki - zamiana bufora pisarza ze środkowym
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & ~FRESH;
+    }
+
+    // Najnowsza opublikowana klatka; pozostaje ważna do następnego wywołania
+    public FrameSnapshot acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & ~FRESH;
+        }
+        return buffers[front];
+    }
+}
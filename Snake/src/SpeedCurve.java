@@ -0,0 +1,76 @@
+import java.util.Locale;
+
+// Krzywa prędkości gry: odstęp między krokami w zależności od wyniku gracza. Odstęp jest stały,
+// maleje liniowo o podaną liczbę milisekund na punkt albo geometrycznie (mnożony przez współczynnik
+// na punkt), ale nigdy nie spada poniżej minimum. Krzywą stosuje pętla kroku (TickScheduler).
+// Można ją ustawić właściwością, np.: java -Dsnake.speed=linear:200:5:80 ...
+//   constant:odstęp | linear:początek:spadek:minimum | geometric:początek:współczynnik:minimum
+public final class SpeedCurve {
+    public static final String PROPERTY = "snake.speed";
+
+    private final double startMillis;
+    private final double decreaseMillis; // spadek liniowy na punkt
+    private final double factor;         // mnożnik na punkt (1 - bez spadku geometrycznego)
+    private final double minMillis;
+
+    private SpeedCurve(double startMillis, double decreaseMillis, double factor, double minMillis) {
+        if (startMillis <= 0 || minMillis <= 0 || decreaseMillis < 0 || factor <= 0 || factor > 1) {
+            throw new IllegalArgumentException("Invalid speed curve");
+        }
+        this.startMillis = startMillis;
+        this.decreaseMillis = decreaseMillis;
+        this.factor = factor;
+        this.minMillis = Math.min(minMillis, startMillis);
+    }
+
+    public static SpeedCurve constant(int millis) {
+        return new SpeedCurve(millis, 0, 1, millis);
+    }
+
+    public static SpeedCurve linear(int startMillis, int decreaseMillis, int minMillis) {
+        return new SpeedCurve(startMillis, decreaseMillis, 1, minMillis);
+    }
+
+    public static SpeedCurve geometric(int startMillis, double factor, int minMillis) {
+        return new SpeedCurve(startMillis, 0, factor, minMillis);
+    }
+
+    // Krzywa z właściwości snake.speed albo podana domyślna, gdy właściwości nie ustawiono
+    public static SpeedCurve fromProperty(SpeedCurve fallback) {
+        String spec = System.getProperty(PROPERTY);
+        return spec == null ? fallback : parse(spec);
+    }
+
+    // Odczyt krzywej z opisu w formacie właściwości snake.speed
+    public static SpeedCurve parse(String spec) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+        try {
+            switch (parts[0]) {
+                case "constant":
+                    if (parts.length == 2) return constant(Integer.parseInt(parts[1]));
+                    break;
+                case "linear":
+                    if (parts.length == 4) {
+                        return linear(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+                    }
+                    break;
+                case "geometric":
+                    if (parts.length == 4) {
+                        return geometric(Integer.parseInt(parts[1]), Double.parseDouble(parts[2]), Integer.parseInt(parts[3]));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            // zgłaszane niżej razem z błędnym formatem
+        }
+        throw new IllegalArgumentException("Invalid speed curve: " + spec);
+    }
+
+    // Odstęp między krokami przy podanym wyniku, w nanosekundach
+    public long periodNanos(int score) {
+        double millis = (startMillis - decreaseMillis * score) * Math.pow(factor, score);
+        return (long) (Math.max(minMillis, millis) * 1_000_000L);
+    }
+}
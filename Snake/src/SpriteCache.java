@@ -0,0 +1,58 @@
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+// Pamięć podręczna obrazków owoców przeskalowanych do rozmiaru kafelka.
+// Pliki PNG są dekodowane raz na cały program, a przeskalowane kopie powstają ponownie
+// tylko przy zmianie rozmiaru kafelka lub konfiguracji ekranu, dzięki czemu rysowanie klatki
+// nie skaluje już obrazków przy każdym drawImage.
+public class SpriteCache {
+    private static BufferedImage appleSource;
+    private static BufferedImage bananaSource;
+
+    private GraphicsConfiguration config;
+    private int tileSize;
+    private Image apple;
+    private Image banana;
+
+    // Ładowanie obrazków owoców (tylko przy pierwszym użyciu)
+    private static synchronized void loadSources() {
+        if (appleSource != null) return;
+        try {
+            appleSource = ImageIO.read(SpriteCache.class.getResourceAsStream("/resources/apple-removebg-preview.png"));
+            bananaSource = ImageIO.read(SpriteCache.class.getResourceAsStream("/resources/banana-removebg-preview.png"));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Obrazek owocu gotowy do narysowania bez skalowania w komponencie target
+    public Image fruit(boolean isApple, Component target, int tileSize) {
+        GraphicsConfiguration current = target.getGraphicsConfiguration();
+        if (apple == null || tileSize != this.tileSize || current != config) {
+            loadSources();
+            this.config = current;
+            this.tileSize = tileSize;
+            this.apple = scale(appleSource, current, tileSize);
+            this.banana = scale(bananaSource, current, tileSize);
+        }
+        return isApple ? apple : banana;
+    }
+
+    // Jednorazowe przeskalowanie obrazka do obrazu zgodnego z ekranem
+    private static Image scale(BufferedImage source, GraphicsConfiguration config, int size) {
+        BufferedImage scaled = config != null
+                ? config.createCompatibleImage(size, size, Transparency.TRANSLUCENT)
+                : new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        if (source == null) {
+            return scaled;
+        }
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(source, 0, 0, size, size, null);
+        g.dispose();
+        return scaled;
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
+
+// Jeden wątek wykonujący kroki gry ze stałym krokiem czasu (fixed timestep). Upływający czas jest
+// dodawany do akumulatora, a każdy krok zabiera z niego jeden odstęp, więc opóźnienia się nie kumulują,
+// a krótkie przestoje są nadrabiane kilkoma krokami z rzędu. Odstęp wyznacza po każdym kroku krzywa
+// prędkości na podstawie poziomu (wyniku gracza). Rysowanie nie zależy od tej pętli: klatki mogą
+// powstawać częściej niż kroki, a postęp interpolacji to czas od zapisania migawki podzielony
+// przez getPeriodNanos().
+public class TickScheduler implements Runnable {
+    // Najwięcej kroków nadrabianych naraz; dłuższy przestój (np. uśpienie komputera) jest pomijany
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final Runnable tick;
+    private final SpeedCurve speed;
+    private final IntSupplier level;
+    private volatile long periodNanos;
+    private volatile boolean running;
+    private volatile TickTelemetry telemetry; // null - bez pomiaru spóźnień
+    private Thread thread;
+
+    // Kroki w stałym odstępie (w milisekundach)
+    public TickScheduler(Runnable tick, int delayMillis) {
+        this(tick, SpeedCurve.constant(delayMillis), () -> 0);
+    }
+
+    // Kroki w odstępie wyznaczanym przez krzywą prędkości dla bieżącego poziomu
+    public TickScheduler(Runnable tick, SpeedCurve speed, IntSupplier level) {
+        this.tick = tick;
+        this.speed = speed;
+        this.level = level;
+        this.periodNanos = speed.periodNanos(level.getAsInt());
+    }
+
+    // Bieżący odstęp między krokami w nanosekundach
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    // Włączenie (obiekt pomiarów) albo wyłączenie (null) pomiaru spóźnienia kroków względem terminu
+    public void setTelemetry(TickTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    // Uruchomienie wątku planisty
+    public void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "snake-tick");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Zatrzymanie wątku planisty - czeka na zakończenie bieżącego kroku,
+    // więc po powrocie stan gry może być bezpiecznie zmieniany z innego wątku
+    public void stop() {
+        running = false;
+        Thread t = thread;
+        thread = null;
+        if (t != null && t != Thread.currentThread()) {
+            LockSupport.unpark(t);
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+            int ticks = 0;
+            while (accumulator >= periodNanos && running) {
+                TickTelemetry t = telemetry;
+                if (t != null) {
+                    t.record(TickTelemetry.JITTER, accumulator - periodNanos);
+                }
+                tick.run();
+                accumulator -= periodNanos;
+                periodNanos = speed.periodNanos(level.getAsInt());
+                if (++ticks == MAX_CATCH_UP_TICKS) {
+                    accumulator = Math.min(accumulator, periodNanos - 1); // reszta zaległości przepada
+                    break;
+                }
+            }
+            long wait = periodNanos - accumulator - (System.nanoTime() - previous);
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+}
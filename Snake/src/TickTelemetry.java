@@ -0,0 +1,149 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+// Pomiary czasu faz kroku gry, publikacji migawki, opóźnienia kroku względem planu, opóźnienia
+// sterowania i rysowania klatki, każdy w osobnym histogramie. Pomiary są włączane przez przekazanie
+// obiektu silnikowi i panelowi; bez niego każda faza kosztuje tylko sprawdzenie null. Fazy kroku,
+// publikację i oba opóźnienia kroku zapisuje wątek kroku, a czas i opóźnienie klatki wątek rysujący
+// (EDT albo wątek aktywnego rysowania) - każdy histogram ma więc jednego piszącego.
+public class TickTelemetry {
+    public static final int PLAYER = 0;
+    public static final int ENEMY_DECIDE = 1;
+    public static final int ENEMY_COMMIT = 2;
+    public static final int OBSTACLES = 3;
+    public static final int COLLISION = 4;
+    public static final int TICK = 5;    // cały krok: silnik, nagranie i publikacja migawki
+    public static final int PUBLISH = 6; // kopiowanie stanu do migawki i jej wymiana
+    public static final int JITTER = 7;  // spóźnienie początku kroku względem planowanego terminu
+    public static final int FRAME = 8;   // paintComponent albo klatka aktywnego rysowania z pokazaniem
+    public static final int FRAME_LATENCY = 9; // od zapisania migawki do pokazania klatki (aktywne rysowanie)
+    public static final int INPUT_LATENCY = 10; // od naciśnięcia klawisza do kroku, który wykonuje skręt
+
+    private static final String[] NAMES = {
+            "player", "enemy-decide", "enemy-commit", "obstacles", "collision", "tick", "publish", "jitter", "frame", "frame-latency",
+            "input-latency"
+    };
+
+    // Rozmiar nakładki w pikselach (panel odświeża ten obszar po każdym kroku)
+    private static final int LINE_HEIGHT = 16;
+    public static final int OVERLAY_WIDTH = 360;
+    public static final int OVERLAY_HEIGHT = (NAMES.length + 1) * LINE_HEIGHT + 6;
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 180);
+    private static final String OVERLAY_HEADER = String.format(Locale.ROOT, "%-13s %8s %8s %8s %7s", "us", "p50", "p99", "max", "count");
+    private static final int OVERLAY_NAME_WIDTH = 13;
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[NAMES.length];
+    // Wiersz nakładki składany w miejscu przez wątek rysujący (nakładka jest rysowana w każdej klatce)
+    private final char[] overlayLine = new char[128];
+    // Półprzezroczyste tło nakładki narysowane raz (wypełnienie półprzezroczystym kolorem na obrazie
+    // w pamięci przydziela bufory przy każdym wywołaniu, a kopiowanie gotowego obrazu nie)
+    private BufferedImage overlayBackground;
+
+    public TickTelemetry() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public void record(int metric, long nanos) {
+        histograms[metric].record(nanos);
+    }
+
+    public LatencyHistogram get(int metric) {
+        return histograms[metric];
+    }
+
+    public static String name(int metric) {
+        return NAMES[metric];
+    }
+
+    // Nakładka z percentylami wszystkich pomiarów w mikrosekundach; (x, y) to lewy górny róg. Wiersze
+    // wyglądają jak z formatu "%-13s %8.1f %8.1f %8.1f %7d", ale są składane bez tworzenia napisów.
+    public void drawOverlay(Graphics g, int x, int y) {
+        if (overlayBackground == null) {
+            overlayBackground = new BufferedImage(OVERLAY_WIDTH, OVERLAY_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+            Graphics background = overlayBackground.createGraphics();
+            background.setColor(OVERLAY_BACKGROUND);
+            background.fillRect(0, 0, OVERLAY_WIDTH, OVERLAY_HEIGHT);
+            background.dispose();
+        }
+        g.drawImage(overlayBackground, x, y, null);
+        g.setColor(Color.YELLOW);
+        g.setFont(OVERLAY_FONT);
+        g.drawString(OVERLAY_HEADER, x + 4, y + LINE_HEIGHT);
+        for (int i = 0; i < NAMES.length; i++) {
+            LatencyHistogram h = histograms[i];
+            int length = NAMES[i].length();
+            NAMES[i].getChars(0, length, overlayLine, 0);
+            while (length < OVERLAY_NAME_WIDTH) {
+                overlayLine[length++] = ' ';
+            }
+            length = appendMicros(length, h.valueAtPercentile(50));
+            length = appendMicros(length, h.valueAtPercentile(99));
+            length = appendMicros(length, h.getMax());
+            length = appendNumber(length, h.getCount(), 0, 7);
+            g.drawChars(overlayLine, 0, length, x + 4, y + (i + 2) * LINE_HEIGHT);
+        }
+    }
+
+    // Czas w mikrosekundach z jedną cyfrą po kropce (zaokrąglony w górę od połowy), w polu 8 znaków
+    private int appendMicros(int at, long nanos) {
+        return appendNumber(at, (nanos + 50) / 100, 1, 8);
+    }
+
+    // Dopisanie do wiersza nakładki spacji i nieujemnej liczby wyrównanej do prawej w polu width znaków;
+    // value jest w jednostkach ostatniej cyfry, a decimals cyfr stoi po kropce. Zwraca nową długość wiersza.
+    private int appendNumber(int at, long value, int decimals, int width) {
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        digits = Math.max(digits, decimals + 1); // zero przed kropką
+        int length = decimals > 0 ? digits + 1 : digits;
+        overlayLine[at++] = ' ';
+        for (int i = length; i < width; i++) {
+            overlayLine[at++] = ' ';
+        }
+        int end = at + length;
+        for (int i = end - 1; i >= at; i--) {
+            if (decimals > 0 && i == end - 1 - decimals) {
+                overlayLine[i] = '.';
+            } else {
+                overlayLine[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+        return end;
+    }
+
+    // Zapis podsumowania w formacie CSV (czasy w mikrosekundach)
+    public void writeCsv(Writer out) throws IOException {
+        out.write("metric,count,mean_us,p50_us,p90_us,p99_us,p99_9_us,max_us\n");
+        for (int i = 0; i < NAMES.length; i++) {
+            LatencyHistogram h = histograms[i];
+            out.write(String.format(Locale.ROOT, "%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f\n", NAMES[i], h.getCount(),
+                    h.getMean() / 1e3, h.valueAtPercentile(50) / 1e3, h.valueAtPercentile(90) / 1e3,
+                    h.valueAtPercentile(99) / 1e3, h.valueAtPercentile(99.9) / 1e3, h.getMax() / 1e3));
+        }
+    }
+
+    // Zapis podsumowania CSV do pliku na wątku zapisu w tle (poza wątkiem gry i EDT)
+    public void saveCsvInBackground(String filename) {
+        BackgroundWriter.execute(() -> {
+            try (Writer out = Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8)) {
+                writeCsv(out);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+}
@@ -0,0 +1,64 @@
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+// Sprawdzenia zasad silnika gry na ręcznie ułożonych planszach, bez zewnętrznych bibliotek:
+//   javac -encoding UTF-8 -d out/test src/*.java test/*.java
+//   java -cp out/test GameEngineTest
+// Plansza jest wczytywana jak klatka kluczowa nagrania (GameEngine.readState). Program kończy się
+// kodem 1, jeśli któreś sprawdzenie nie przejdzie.
+public class GameEngineTest {
+    private static final int WIDTH = 40;
+    private static final int HEIGHT = 30;
+
+    private static int failures;
+
+    public static void main(String[] args) throws IOException {
+        headsSwappingPlacesCrash();
+        System.out.println(failures == 0 ? "OK" : failures + " checks failed");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Gracz i wąż komputera, oba długości 1, idą na siebie z sąsiednich kafelków. Po kroku każdy stoi
+    // na starym kafelku drugiego, więc żaden kafelek nie ma dwóch segmentów, ale to zderzenie czołowe.
+    private static void headsSwappingPlacesCrash() throws IOException {
+        GameEngine engine = new GameEngine(true, WIDTH, HEIGHT, 1);
+        ReplayBuffer state = new ReplayBuffer();
+        state.writeVarint(0);    // krok
+        state.writeVarint(0);    // wynik
+        state.writeByte(1);      // gra trwa
+        state.writeByte('R');    // kierunek gracza
+        state.writeLong(1);      // stan generatora losowego
+        writeBody(state, 10, 10);             // gracz
+        writeBody(state, 11, 10);             // wąż komputera
+        state.writeVarint(0);                 // drugi wąż komputera - pusty
+        state.writeVarint(1);                 // owoc za graczem przyciąga węża komputera w lewo
+        state.writeInt(SnakeBodies.pack(9, 10));
+        state.writeByte(1);
+        state.writeVarint(0);                 // bez przeszkód
+        load(engine, state, 3);
+
+        engine.step('R');
+
+        check("player moved onto the enemy's tile", engine.getSnakes().head(GameEngine.PLAYER) == SnakeBodies.pack(11, 10));
+        check("enemy moved onto the player's tile", engine.getSnakes().head(GameEngine.ENEMY) == SnakeBodies.pack(10, 10));
+        check("swapping heads ends the game", !engine.isRunning());
+        check("both swapped snakes crashed", engine.getCrashed() == (1 << GameEngine.PLAYER | 1 << GameEngine.ENEMY));
+    }
+
+    private static void writeBody(ReplayBuffer state, int x, int y) {
+        state.writeVarint(1);
+        state.writeInt(SnakeBodies.pack(x, y));
+    }
+
+    private static void load(GameEngine engine, ReplayBuffer state, int snakes) throws IOException {
+        engine.readState(new DataInputStream(new ByteArrayInputStream(state.toByteArray())), snakes);
+    }
+
+    private static void check(String name, boolean ok) {
+        System.out.println((ok ? "ok   " : "FAIL ") + name);
+        if (!ok) {
+            failures++;
+        }
+    }
+}